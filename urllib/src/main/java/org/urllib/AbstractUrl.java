@@ -0,0 +1,96 @@
+package org.urllib;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.urllib.internal.PercentEncoder;
+
+/**
+ * Implements {@link Url} in terms of its components, so that every implementation resolves,
+ * prints and compares the same way.
+ */
+abstract class AbstractUrl implements Url {
+
+  // Racy single-check, as in String: 0 means not computed yet.
+  private int hash;
+
+  @Nonnegative abstract int defaultPort();
+
+  @Nonnull @Override public Url resolve(String reference) {
+    return Urls.resolve(this, reference);
+  }
+
+  @Override @Nonnull public URI uri() {
+    try {
+      return new URI(toString());
+    } catch (URISyntaxException e) {
+      // Reaching this point would mean a bug in our url encoding.
+      throw new AssertionError(
+          "Please file a bug at https://github.com/EricEdens/urllib/issues");
+    }
+  }
+
+  @Override public String toString() {
+    StringBuilder sb = new StringBuilder()
+        .append(scheme())
+        .append("://")
+        .append(host().name());
+
+    if (port() != defaultPort()) {
+      sb.append(':').append(port());
+    }
+
+    sb.append(path().encoded());
+
+    if (!query().isEmpty()) {
+      sb.append('?').append(query().encoded());
+    }
+
+    if (!fragment().isEmpty()) {
+      sb.append('#').append(PercentEncoder.encodeFragment(fragment()));
+    }
+
+    return sb.toString();
+  }
+
+  @Override public boolean equals(@Nullable Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (!(o instanceof AbstractUrl)) {
+      return false;
+    }
+    AbstractUrl that = (AbstractUrl) o;
+    // The hashes are cached, so unequal URLs usually differ here without reading a component.
+    if (hashCode() != that.hashCode()) {
+      return false;
+    }
+    return scheme().equals(that.scheme())
+        && host().equals(that.host())
+        && port() == that.port()
+        && path().equals(that.path())
+        && query().equals(that.query())
+        && fragment().equals(that.fragment());
+  }
+
+  @Override public int hashCode() {
+    int h = hash;
+    if (h == 0) {
+      hash = h = computeHashCode();
+    }
+    return h;
+  }
+
+  private int computeHashCode() {
+    int h = 1;
+    h = h * 1000003 ^ scheme().hashCode();
+    h = h * 1000003 ^ host().hashCode();
+    h = h * 1000003 ^ port();
+    h = h * 1000003 ^ path().hashCode();
+    h = h * 1000003 ^ query().hashCode();
+    h = h * 1000003 ^ fragment().hashCode();
+    return h;
+  }
+}
@@ -0,0 +1,123 @@
+package org.urllib;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs one operation over many inputs, splitting them into chunks that the calling thread and
+ * an {@link Executor} claim in turn. The caller keeps claiming chunks too, so a batch finishes
+ * even if the executor never runs a task.
+ */
+abstract class Batch<T> {
+
+  // A URL takes well under a microsecond to parse, so a chunk is large enough to amortize
+  // scheduling while still leaving several chunks per thread to balance the load.
+  static final int CHUNK = 512;
+
+  private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+  abstract T apply(CharSequence input);
+
+  List<ParseResult<T>> run(CharSequence[] inputs, Executor executor) {
+    int size = inputs.length;
+    @SuppressWarnings("unchecked")
+    ParseResult<T>[] results = (ParseResult<T>[]) new ParseResult<?>[size];
+    int chunks = (size + CHUNK - 1) / CHUNK;
+    if (chunks <= 1 || PARALLELISM == 1) {
+      runChunk(inputs, results, 0, size);
+    } else {
+      runParallel(inputs, results, chunks, executor);
+    }
+    return Collections.unmodifiableList(Arrays.asList(results));
+  }
+
+  private void runParallel(final CharSequence[] inputs, final ParseResult<T>[] results,
+      final int chunks, Executor executor) {
+    final AtomicInteger nextChunk = new AtomicInteger();
+    final CountDownLatch done = new CountDownLatch(chunks);
+    final AtomicReference<Throwable> unexpected = new AtomicReference<>();
+    Runnable worker = new Runnable() {
+      @Override public void run() {
+        for (int chunk; (chunk = nextChunk.getAndIncrement()) < chunks; ) {
+          try {
+            int start = chunk * CHUNK;
+            runChunk(inputs, results, start, Math.min(start + CHUNK, results.length));
+          } catch (Throwable t) {
+            unexpected.compareAndSet(null, t);
+          } finally {
+            done.countDown();
+          }
+        }
+      }
+    };
+
+    for (int i = Math.min(PARALLELISM, chunks) - 1; i > 0; i--) {
+      try {
+        executor.execute(worker);
+      } catch (RejectedExecutionException e) {
+        break;
+      }
+    }
+    worker.run();
+
+    boolean interrupted = false;
+    while (true) {
+      try {
+        done.await();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    Throwable t = unexpected.get();
+    if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    } else if (t instanceof Error) {
+      throw (Error) t;
+    }
+  }
+
+  private void runChunk(CharSequence[] inputs, ParseResult<T>[] results, int start, int end) {
+    for (int i = start; i < end; i++) {
+      try {
+        results[i] = ParseResult.success(apply(inputs[i]));
+      } catch (IllegalArgumentException e) {
+        results[i] = ParseResult.failure(e);
+      }
+    }
+  }
+
+  /**
+   * The executor used when the caller doesn't pass one: daemon threads, one fewer than there
+   * are processors since the calling thread works too. Created on first use.
+   */
+  static Executor defaultExecutor() {
+    return DefaultExecutor.INSTANCE;
+  }
+
+  private static final class DefaultExecutor {
+    static final ExecutorService INSTANCE = Executors.newFixedThreadPool(
+        Math.max(1, PARALLELISM - 1), new ThreadFactory() {
+          private final AtomicInteger count = new AtomicInteger();
+
+          @Override public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "urllib-batch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+  }
+}
@@ -0,0 +1,153 @@
+package org.urllib;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.urllib.Query.KeyValue;
+import org.urllib.internal.Paths;
+import org.urllib.internal.PercentDecoder;
+import org.urllib.internal.Queries;
+import org.urllib.internal.Scheme;
+import org.urllib.internal.authority.Authority;
+
+/**
+ * The {@link Url} returned by {@link Urls#compact}: its canonical string and the offsets of the
+ * path, query and fragment, with every component derived from them on each access. That keeps
+ * one {@code String} and three ints per URL where {@link LazyUrl} keeps the input, an
+ * authority, a host with two strings, and once accessed, a path and query with their lists and
+ * encoded strings. Nothing is cached, so prefer another {@code Url} for URLs whose components
+ * are read often.
+ */
+final class CompactUrl extends AbstractUrl {
+
+  private final String url;
+  // Index of the path's leading slash, of '?' and of '#'. An absent query or fragment starts,
+  // empty, where the next component or the end of the string does.
+  private final int pathStart;
+  private final int queryStart;
+  private final int fragmentStart;
+
+  private CompactUrl(String url, int pathStart, int queryStart, int fragmentStart) {
+    this.url = url;
+    this.pathStart = pathStart;
+    this.queryStart = queryStart;
+    this.fragmentStart = fragmentStart;
+  }
+
+  /**
+   * Returns a {@code CompactUrl} equal to {@code url}, or {@code url} itself if it's already
+   * compact or its canonical string would lose part of it.
+   */
+  static Url of(Url url) {
+    if (url instanceof CompactUrl || !survivesToString(url)) {
+      return url;
+    }
+    String str = url.toString();
+    // The path can't hold a literal '?' or '#', nor the query a '#'.
+    int pathStart = str.indexOf('/', url.scheme().length() + 3);
+    int fragmentStart = str.indexOf('#', pathStart);
+    if (fragmentStart == -1) {
+      fragmentStart = str.length();
+    }
+    int queryStart = str.indexOf('?', pathStart);
+    if (queryStart == -1 || queryStart > fragmentStart) {
+      queryStart = fragmentStart;
+    }
+    return new CompactUrl(str, pathStart, queryStart, fragmentStart);
+  }
+
+  /**
+   * Returns whether parsing {@code url.toString()} gives back {@code url}. Encoding replaces an
+   * unpaired surrogate, and a parameter with an empty key and value encodes to nothing.
+   */
+  private static boolean survivesToString(Url url) {
+    for (String segment : url.path().segments()) {
+      if (hasUnpairedSurrogate(segment)) {
+        return false;
+      }
+    }
+    for (KeyValue param : url.query().params()) {
+      String value = param.value() == null ? "" : param.value();
+      if (param.key().isEmpty() && value.isEmpty()
+          || hasUnpairedSurrogate(param.key()) || hasUnpairedSurrogate(value)) {
+        return false;
+      }
+    }
+    return !hasUnpairedSurrogate(url.fragment());
+  }
+
+  private static boolean hasUnpairedSurrogate(String str) {
+    for (int i = 0; i < str.length(); i++) {
+      char c = str.charAt(i);
+      if (Character.isHighSurrogate(c) && i + 1 < str.length()
+          && Character.isLowSurrogate(str.charAt(i + 1))) {
+        i++;
+      } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Scheme schemeValue() {
+    return url.charAt(4) == 's' ? Scheme.HTTPS : Scheme.HTTP;
+  }
+
+  @Nonnull @Override public String scheme() {
+    return schemeValue().name();
+  }
+
+  @Nonnull @Override public Host host() {
+    return Authority.split(url, schemeValue().name().length() + 3, pathStart, null).host();
+  }
+
+  @Nonnegative @Override public int port() {
+    // A port is the digits after a ':' at the end of the authority. An IPv6 host ends with ']',
+    // so its colons are never there.
+    int i = pathStart;
+    while (url.charAt(i - 1) >= '0' && url.charAt(i - 1) <= '9') {
+      i--;
+    }
+    if (url.charAt(i - 1) != ':') {
+      return defaultPort();
+    }
+    int port = 0;
+    for (; i < pathStart; i++) {
+      port = port * 10 + url.charAt(i) - '0';
+    }
+    return port;
+  }
+
+  @Nonnegative @Override int defaultPort() {
+    return schemeValue().defaultPort();
+  }
+
+  @Nonnull @Override public Path path() {
+    return Paths.parse(url, pathStart, queryStart);
+  }
+
+  @Nonnull @Override public Query query() {
+    return queryStart < fragmentStart
+        ? Queries.parse(url, queryStart + 1, fragmentStart)
+        : Queries.empty();
+  }
+
+  @Nonnull @Override public String fragment() {
+    return fragmentStart < url.length()
+        ? PercentDecoder.decodeAll(url, fragmentStart + 1, url.length())
+        : "";
+  }
+
+  @Override public String toString() {
+    return url;
+  }
+
+  @Override public boolean equals(@Nullable Object o) {
+    // Only URLs that survive toString() are compacted, so for two of them comparing the strings
+    // is the same as comparing their components.
+    if (o instanceof CompactUrl) {
+      return o == this || hashCode() == o.hashCode() && url.equals(((CompactUrl) o).url);
+    }
+    return super.equals(o);
+  }
+}
@@ -0,0 +1,150 @@
+package org.urllib;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link ParseListener} that records the latency of each operation and stage in a
+ * log-linear histogram. Buckets are at most 1/16th as wide as their lower bound, so reported
+ * percentiles are within about 6% of the recorded value.
+ *
+ * <pre>{@code
+ *   LatencyHistogram histogram = new LatencyHistogram();
+ *   Urls.setListener(histogram);
+ *   ...
+ *   long p99 = histogram.percentile(ParseListener.Stage.HOST, 0.99);
+ * }</pre>
+ */
+public final class LatencyHistogram implements ParseListener {
+
+  // Values below 16 get their own bucket; above that, each power of
+  // two is split into 16 linear sub-buckets.
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray[] operations = new AtomicLongArray[Operation.values().length];
+  private final AtomicLongArray[] stages = new AtomicLongArray[Stage.values().length];
+  private final AtomicLongArray failures = new AtomicLongArray(Operation.values().length);
+
+  public LatencyHistogram() {
+    for (int i = 0; i < operations.length; i++) {
+      operations[i] = new AtomicLongArray(BUCKETS);
+    }
+    for (int i = 0; i < stages.length; i++) {
+      stages[i] = new AtomicLongArray(BUCKETS);
+    }
+  }
+
+  @Override public void onStage(@Nonnull Operation operation, @Nonnull Stage stage,
+      @Nonnegative long nanos) {
+    stages[stage.ordinal()].incrementAndGet(bucket(nanos));
+  }
+
+  @Override public void onComplete(@Nonnull Operation operation, @Nonnegative int inputLength,
+      boolean success, @Nonnegative long nanos) {
+    operations[operation.ordinal()].incrementAndGet(bucket(nanos));
+    if (!success) {
+      failures.incrementAndGet(operation.ordinal());
+    }
+  }
+
+  /**
+   * Returns the latency in nanoseconds below which {@code percentile} of the calls to
+   * {@code operation} completed, or 0 if none were recorded.
+   *
+   * @param percentile between 0 and 1, for example 0.99.
+   */
+  public long percentile(@Nonnull Operation operation, double percentile) {
+    return percentile(operations[operation.ordinal()], percentile);
+  }
+
+  /**
+   * Returns the latency in nanoseconds below which {@code percentile} of the executions of
+   * {@code stage} completed, or 0 if none were recorded.
+   *
+   * @param percentile between 0 and 1, for example 0.99.
+   */
+  public long percentile(@Nonnull Stage stage, double percentile) {
+    return percentile(stages[stage.ordinal()], percentile);
+  }
+
+  public long count(@Nonnull Operation operation) {
+    return count(operations[operation.ordinal()]);
+  }
+
+  public long count(@Nonnull Stage stage) {
+    return count(stages[stage.ordinal()]);
+  }
+
+  public long failures(@Nonnull Operation operation) {
+    return failures.get(operation.ordinal());
+  }
+
+  public void reset() {
+    for (AtomicLongArray histogram : operations) {
+      clear(histogram);
+    }
+    for (AtomicLongArray histogram : stages) {
+      clear(histogram);
+    }
+    clear(failures);
+  }
+
+  static int bucket(long nanos) {
+    if (nanos < SUB_BUCKETS) {
+      return nanos < 0 ? 0 : (int) nanos;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+    int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long highestValueIn(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  private static long percentile(AtomicLongArray histogram, double percentile) {
+    if (percentile < 0 || percentile > 1) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 1: " + percentile);
+    }
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = histogram.get(i);
+      total += counts[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return highestValueIn(i);
+      }
+    }
+    return highestValueIn(BUCKETS - 1);
+  }
+
+  private static long count(AtomicLongArray histogram) {
+    long total = 0;
+    for (int i = 0; i < histogram.length(); i++) {
+      total += histogram.get(i);
+    }
+    return total;
+  }
+
+  private static void clear(AtomicLongArray histogram) {
+    for (int i = 0; i < histogram.length(); i++) {
+      histogram.set(i, 0);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package org.urllib;
+
+import java.net.URI;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import org.urllib.internal.Paths;
+import org.urllib.internal.PercentDecoder;
+import org.urllib.internal.Queries;
+import org.urllib.internal.Scheme;
+import org.urllib.internal.SplitIndex;
+import org.urllib.internal.authority.Authority;
+
+/**
+ * The {@link Url} returned by {@link Urls#parse}. The scheme, host and port are validated while
+ * parsing, since they decide whether the input is accepted. The path, query and fragment can't
+ * be invalid, so they're kept as offsets into the input and decoded on first access. The input
+ * must therefore never change: it's either a {@code String} or a {@code Utf8View} that owns its
+ * bytes.
+ */
+final class LazyUrl extends AbstractUrl {
+
+  private final CharSequence url;
+  private final Scheme scheme;
+  private final Authority authority;
+  private final int pathStart;
+  private final int pathEnd;
+  private final int queryStart;
+  private final int queryEnd;
+  private final int fragmentStart;
+  private final int fragmentEnd;
+
+  // Racy single-check: each component is immutable, and decoding it twice gives equal values.
+  private Path path;
+  private Query query;
+  private String fragment;
+
+  // The string is racy single-check too. The URI is volatile instead: java.net.URI's fields
+  // aren't final, so it has to be published safely.
+  private String string;
+  private volatile URI uri;
+
+  LazyUrl(CharSequence url, Scheme scheme, Authority authority, SplitIndex split) {
+    this.url = url;
+    this.scheme = scheme;
+    this.authority = authority;
+    this.pathStart = split.pathStart();
+    this.pathEnd = split.pathEnd();
+    this.queryStart = split.queryStart();
+    this.queryEnd = split.queryEnd();
+    this.fragmentStart = split.fragmentStart();
+    this.fragmentEnd = split.fragmentEnd();
+  }
+
+  @Nonnull @Override public String scheme() {
+    return scheme.name();
+  }
+
+  @Nonnull @Override public Host host() {
+    return authority.host();
+  }
+
+  @Nonnegative @Override public int port() {
+    return authority.port() == -1 ? scheme.defaultPort() : authority.port();
+  }
+
+  @Nonnegative @Override int defaultPort() {
+    return scheme.defaultPort();
+  }
+
+  @Nonnull @Override public Path path() {
+    Path result = path;
+    if (result == null) {
+      path = result = Paths.parse(url, pathStart, pathEnd);
+    }
+    return result;
+  }
+
+  @Nonnull @Override public Query query() {
+    Query result = query;
+    if (result == null) {
+      query = result = Queries.parse(url, queryStart, queryEnd);
+    }
+    return result;
+  }
+
+  @Nonnull @Override public String fragment() {
+    String result = fragment;
+    if (result == null) {
+      fragment = result = fragmentEnd > fragmentStart
+          ? PercentDecoder.decodeAll(url, fragmentStart, fragmentEnd)
+          : "";
+    }
+    return result;
+  }
+
+  @Override public String toString() {
+    String result = string;
+    if (result == null) {
+      string = result = super.toString();
+    }
+    return result;
+  }
+
+  @Nonnull @Override public URI uri() {
+    URI result = uri;
+    if (result == null) {
+      uri = result = super.uri();
+    }
+    return result;
+  }
+}
@@ -0,0 +1,206 @@
+package org.urllib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.urllib.Query.KeyValue;
+import org.urllib.Urls.ImmutableUrl;
+import org.urllib.internal.CharView;
+import org.urllib.internal.DecodeBuffer;
+import org.urllib.internal.Paths;
+import org.urllib.internal.Queries;
+import org.urllib.internal.Scheme;
+import org.urllib.internal.authority.Authority;
+
+/**
+ * The result of {@link UrlParser#parse}, which overwrites it on every call. Components are
+ * decoded while parsing into one buffer owned by the parser, and returned as
+ * {@link CharSequence} views of it. The views, like this object, are only valid until the
+ * parser's next call; use {@link #toImmutable} for a {@link Url} that outlives it.
+ *
+ * <p>Each accessor returns the same view every time, pointed at the component asked for, so
+ * reading components allocates nothing. A view from {@link #key} therefore changes on the next
+ * call to {@code key}, though not on a call to {@link #value}; call {@code toString()} on
+ * the ones to keep.
+ *
+ * <p>Each accessor agrees with the same component of {@code Urls.parse(input)}. The path's
+ * segments and the query's parameters are indexed from 0.
+ */
+public final class MutableUrl {
+
+  private final DecodeBuffer buffer;
+  private final CharView hostView = new CharView();
+  private final CharView segmentView = new CharView();
+  private final CharView keyView = new CharView();
+  private final CharView valueView = new CharView();
+  private final CharView fragmentView = new CharView();
+
+  private Scheme scheme = Scheme.HTTP;
+  private int port = -1;
+  // Set when the hostname had to be parsed to a Host, so toImmutable() needn't parse it again.
+  @Nullable private Host host;
+  private int hostEnd;
+
+  // Start and end of each segment in the buffer.
+  private int[] segments = new int[16];
+  private int segmentCount;
+  private boolean isDirectory = true;
+
+  // Key start, key end, value start and value end of each parameter in the buffer.
+  private int[] params = new int[32];
+  private int paramCount;
+
+  private int fragmentStart;
+  private int fragmentEnd;
+
+  MutableUrl(DecodeBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  void reset(Scheme scheme) {
+    this.scheme = scheme;
+    port = -1;
+    host = null;
+    hostEnd = 0;
+    segmentCount = 0;
+    isDirectory = true;
+    paramCount = 0;
+    fragmentStart = fragmentEnd = 0;
+  }
+
+  void setHost(int port, @Nullable Host host) {
+    this.port = port;
+    this.host = host;
+    this.hostEnd = buffer.length();
+  }
+
+  void setDirectory(boolean isDirectory) {
+    this.isDirectory = isDirectory;
+  }
+
+  void addSegment(int start, int end) {
+    if (segments.length == 2 * segmentCount) {
+      segments = Arrays.copyOf(segments, 2 * segments.length);
+    }
+    segments[2 * segmentCount] = start;
+    segments[2 * segmentCount + 1] = end;
+    segmentCount++;
+  }
+
+  /** Removes the last segment, for {@code ..}. */
+  void removeSegment() {
+    if (segmentCount > 0) {
+      segmentCount--;
+    }
+  }
+
+  void addParam(int keyStart, int keyEnd, int valueStart, int valueEnd) {
+    if (params.length == 4 * paramCount) {
+      params = Arrays.copyOf(params, 2 * params.length);
+    }
+    int p = 4 * paramCount++;
+    params[p] = keyStart;
+    params[p + 1] = keyEnd;
+    params[p + 2] = valueStart;
+    params[p + 3] = valueEnd;
+  }
+
+  void setFragment(int start, int end) {
+    fragmentStart = start;
+    fragmentEnd = end;
+  }
+
+  @Nonnull public String scheme() {
+    return scheme.name();
+  }
+
+  /**
+   * Returns the hostname in the form of {@link Host#name}.
+   */
+  @Nonnull public CharSequence host() {
+    return hostView.set(buffer.chars(), 0, hostEnd);
+  }
+
+  @Nonnegative public int port() {
+    return port == -1 ? scheme.defaultPort() : port;
+  }
+
+  @Nonnegative public int pathSegmentCount() {
+    return segmentCount;
+  }
+
+  @Nonnull public CharSequence pathSegment(int index) {
+    checkIndex(index, segmentCount);
+    return segmentView.set(buffer.chars(), segments[2 * index], segments[2 * index + 1]);
+  }
+
+  /**
+   * Returns whether the path ends with a slash, as in {@link Path#isDirectory}.
+   */
+  public boolean isDirectory() {
+    return isDirectory;
+  }
+
+  @Nonnegative public int paramCount() {
+    return paramCount;
+  }
+
+  @Nonnull public CharSequence key(int index) {
+    checkIndex(index, paramCount);
+    return keyView.set(buffer.chars(), params[4 * index], params[4 * index + 1]);
+  }
+
+  /**
+   * Returns the value of parameter {@code index}, which is empty if it has none.
+   */
+  @Nonnull public CharSequence value(int index) {
+    checkIndex(index, paramCount);
+    return valueView.set(buffer.chars(), params[4 * index + 2], params[4 * index + 3]);
+  }
+
+  @Nonnull public CharSequence fragment() {
+    return fragmentView.set(buffer.chars(), fragmentStart, fragmentEnd);
+  }
+
+  /**
+   * Copies this URL to an immutable {@link Url}, equal to the one {@link Urls#parse} returns for
+   * the same input.
+   */
+  @Nonnull public Url toImmutable() {
+    Host host = this.host != null ? this.host : Authority.split(host().toString()).host();
+
+    Path path = Paths.empty();
+    if (segmentCount > 0) {
+      List<String> segments = new ArrayList<>(segmentCount);
+      for (int i = 0; i < segmentCount; i++) {
+        segments.add(pathSegment(i).toString());
+      }
+      path = Paths.create(segments, isDirectory);
+    }
+
+    Query query = Queries.empty();
+    if (paramCount > 0) {
+      List<KeyValue> params = new ArrayList<>(paramCount);
+      for (int i = 0; i < paramCount; i++) {
+        params.add(Queries.create(key(i).toString(), value(i).toString()));
+      }
+      query = Queries.of(params);
+    }
+
+    return ImmutableUrl.create(scheme.name(), host, port(), path, query,
+        fragment().toString(), scheme.defaultPort());
+  }
+
+  @Override public String toString() {
+    return toImmutable().toString();
+  }
+
+  private static void checkIndex(int index, int count) {
+    if (index < 0 || index >= count) {
+      throw new IndexOutOfBoundsException("index " + index + ", count " + count);
+    }
+  }
+}
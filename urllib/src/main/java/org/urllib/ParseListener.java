@@ -0,0 +1,57 @@
+package org.urllib;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Receives timings from {@link Urls#parse}, {@link Urls#escape} and {@link Url#resolve}.
+ * Register an instance with {@link Urls#setListener}; when no listener is registered, no
+ * timings are taken.
+ *
+ * <p>Listeners are called on the parsing thread, so implementations must be threadsafe and
+ * should return quickly. {@link LatencyHistogram} is a ready-made implementation.
+ */
+public interface ParseListener {
+
+  /**
+   * Called after each stage of an operation. Stages don't overlap: the time spent in
+   * {@link Stage#HOST} is not included in {@link Stage#AUTHORITY}.
+   */
+  void onStage(@Nonnull Operation operation, @Nonnull Stage stage, @Nonnegative long nanos);
+
+  /**
+   * Called once an operation returns or throws.
+   *
+   * @param inputLength length of the input, before whitespace is removed.
+   * @param success {@code false} if the operation threw an exception.
+   */
+  void onComplete(@Nonnull Operation operation, @Nonnegative int inputLength, boolean success,
+      @Nonnegative long nanos);
+
+  enum Operation {
+    PARSE,
+    ESCAPE,
+    RESOLVE,
+  }
+
+  enum Stage {
+    /**
+     * Trimming whitespace and removing line breaks. Parsing and escaping a {@code CharSequence}
+     * do this in the same pass as {@link #SPLIT}, and report the time there.
+     */
+    SANITIZE,
+    /** Splitting the input into scheme, authority, path, query and fragment. */
+    SPLIT,
+    /** Removing userinfo and validating the port. */
+    AUTHORITY,
+    /** Validating the host and converting it to ASCII. */
+    HOST,
+    /**
+     * Encoding or resolving the path. {@link Urls#parse} decodes the path, query and fragment
+     * on first access rather than while parsing, so it doesn't report these stages.
+     */
+    PATH,
+    QUERY,
+    FRAGMENT,
+  }
+}
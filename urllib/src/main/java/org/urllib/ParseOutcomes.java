@@ -0,0 +1,92 @@
+package org.urllib;
+
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import org.urllib.ParseListener.Operation;
+
+/**
+ * A snapshot of how many inputs were accepted and rejected, and why, since the JVM started.
+ * Compare two snapshots with {@link #since} to find the counts over an interval:
+ *
+ * <pre>{@code
+ *   ParseOutcomes last = Urls.outcomes();
+ *   ...
+ *   ParseOutcomes now = Urls.outcomes();
+ *   long badHosts = now.since(last).rejected(Operation.PARSE, Rejection.INVALID_DNS);
+ * }</pre>
+ */
+public final class ParseOutcomes {
+
+  private static final int OUTCOMES = Rejection.values().length + 1;
+  private static final int ACCEPTED = OUTCOMES - 1;
+
+  private final long[] counts;
+
+  ParseOutcomes(long[] counts) {
+    this.counts = counts;
+  }
+
+  static int acceptedIndex(Operation operation) {
+    return operation.ordinal() * OUTCOMES + ACCEPTED;
+  }
+
+  static int rejectedIndex(Operation operation, Rejection reason) {
+    return operation.ordinal() * OUTCOMES + reason.ordinal();
+  }
+
+  static int size() {
+    return Operation.values().length * OUTCOMES;
+  }
+
+  public long accepted(@Nonnull Operation operation) {
+    return counts[acceptedIndex(operation)];
+  }
+
+  public long rejected(@Nonnull Operation operation, @Nonnull Rejection reason) {
+    return counts[rejectedIndex(operation, reason)];
+  }
+
+  /** Returns the number of inputs rejected by {@code operation} for any reason. */
+  public long rejected(@Nonnull Operation operation) {
+    long total = 0;
+    for (Rejection reason : Rejection.values()) {
+      total += rejected(operation, reason);
+    }
+    return total;
+  }
+
+  /** Returns the counts recorded after {@code earlier} was taken. */
+  @Nonnull public ParseOutcomes since(@Nonnull ParseOutcomes earlier) {
+    long[] delta = new long[counts.length];
+    for (int i = 0; i < counts.length; i++) {
+      delta[i] = counts[i] - earlier.counts[i];
+    }
+    return new ParseOutcomes(delta);
+  }
+
+  @Override public boolean equals(Object o) {
+    return o instanceof ParseOutcomes && Arrays.equals(counts, ((ParseOutcomes) o).counts);
+  }
+
+  @Override public int hashCode() {
+    return Arrays.hashCode(counts);
+  }
+
+  @Override public String toString() {
+    StringBuilder sb = new StringBuilder("ParseOutcomes{");
+    for (Operation operation : Operation.values()) {
+      if (operation.ordinal() > 0) {
+        sb.append(", ");
+      }
+      sb.append(operation).append("={ACCEPTED=").append(accepted(operation));
+      for (Rejection reason : Rejection.values()) {
+        long count = rejected(operation, reason);
+        if (count > 0) {
+          sb.append(", ").append(reason).append('=').append(count);
+        }
+      }
+      sb.append('}');
+    }
+    return sb.append('}').toString();
+  }
+}
@@ -0,0 +1,103 @@
+package org.urllib;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.urllib.internal.InvalidUrlException;
+
+/**
+ * The outcome of parsing or escaping one input: either a value, or the reason it was rejected.
+ * Results from {@link Urls#parseAll} and {@link Urls#escapeAll} hold the
+ * {@link IllegalArgumentException} that the single-input method would have thrown. Results from
+ * {@link Urls#tryParse} and {@link Urls#tryEscape} hold only a {@link Rejection} and the
+ * position where it was found, since no exception was thrown.
+ *
+ * @param <T> {@link Url} for parsing, {@link String} for escaping.
+ */
+public final class ParseResult<T> {
+
+  @Nullable private final T value;
+  @Nullable private final IllegalArgumentException failure;
+  @Nullable private final Rejection rejection;
+  private final int position;
+
+  private ParseResult(@Nullable T value, @Nullable IllegalArgumentException failure,
+      @Nullable Rejection rejection, int position) {
+    this.value = value;
+    this.failure = failure;
+    this.rejection = rejection;
+    this.position = position;
+  }
+
+  static <T> ParseResult<T> success(@Nonnull T value) {
+    return new ParseResult<>(value, null, null, -1);
+  }
+
+  static <T> ParseResult<T> failure(@Nonnull IllegalArgumentException failure) {
+    Rejection rejection = failure instanceof InvalidUrlException
+        ? ((InvalidUrlException) failure).reason()
+        : null;
+    return new ParseResult<>(null, failure, rejection, -1);
+  }
+
+  static <T> ParseResult<T> rejected(@Nonnull Rejection rejection, int position) {
+    return new ParseResult<>(null, null, rejection, position);
+  }
+
+  public boolean isSuccess() {
+    return value != null;
+  }
+
+  /**
+   * Returns the value, or throws the failure.
+   */
+  @Nonnull public T get() {
+    if (value == null) {
+      throw failure();
+    }
+    return value;
+  }
+
+  /**
+   * Returns the value, or {@code null} if the input was rejected.
+   */
+  @Nullable public T value() {
+    return value;
+  }
+
+  /**
+   * Returns why the input was rejected, or {@code null} if it was accepted. For a result from
+   * {@link Urls#tryParse} or {@link Urls#tryEscape}, the exception is created by this call.
+   */
+  @Nullable public IllegalArgumentException failure() {
+    if (failure != null || rejection == null) {
+      return failure;
+    }
+    return new InvalidUrlException(rejection,
+        "Invalid URL: " + rejection + " at index " + position);
+  }
+
+  /**
+   * Returns the reason the input was rejected, or {@code null} if it was accepted or the
+   * failure has no {@link Rejection}.
+   */
+  @Nullable public Rejection rejection() {
+    return rejection;
+  }
+
+  /**
+   * Returns the index in the input at which it was rejected, or -1 if it was accepted or the
+   * position isn't known. Only {@link Urls#tryParse} and {@link Urls#tryEscape} record one.
+   */
+  public int position() {
+    return position;
+  }
+
+  @Override public String toString() {
+    if (value != null) {
+      return "ParseResult{value=" + value + "}";
+    } else if (failure != null) {
+      return "ParseResult{failure=" + failure.getMessage() + "}";
+    }
+    return "ParseResult{rejection=" + rejection + ", position=" + position + "}";
+  }
+}
@@ -0,0 +1,34 @@
+package org.urllib;
+
+/**
+ * The reason that an input was rejected by {@link Urls#parse}, {@link Urls#escape} or
+ * {@link Url#resolve}.
+ *
+ * @see Urls#outcomes()
+ */
+public enum Rejection {
+
+  /** The input is relative, protocol-relative or a fragment, e.g. {@code //host.com}. */
+  NOT_FULL_URL,
+
+  /** The scheme is something other than {@code http} or {@code https}. */
+  BAD_SCHEME,
+
+  /** The authority is empty or consists only of userinfo or a port. */
+  MISSING_HOST,
+
+  /** The host contains a character that isn't allowed in an ASCII DNS name. */
+  INVALID_DNS,
+
+  /** The host could not be converted to ASCII by {@link java.net.IDN}. */
+  INVALID_IDN,
+
+  /** The host looks like an IPv4 address, but isn't a valid one. */
+  INVALID_IPV4,
+
+  /** The host looks like an IPv6 address, but isn't a valid one. */
+  INVALID_IPV6,
+
+  /** The port is not a number between 1 and 65535. */
+  BAD_PORT,
+}
@@ -46,8 +46,12 @@ public final class UrlBuilder {
   }
 
   UrlBuilder(@Nonnull Scheme scheme, @Nonnull String host) {
+    this(scheme, Authority.split(host));
+  }
+
+  UrlBuilder(@Nonnull Scheme scheme, @Nonnull Authority authority) {
     this.scheme = scheme;
-    this.authority = Authority.split(host);
+    this.authority = authority;
     if (authority.port() != -1) {
       port(authority.port());
     }
@@ -0,0 +1,65 @@
+package org.urllib;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.urllib.internal.ClockCache;
+
+/**
+ * A bounded cache of parsed URLs, keyed by the input string. Register an instance with
+ * {@link Urls#setCache} so that {@link Urls#parse} returns the cached {@link Url} for an input
+ * it has already accepted. {@code Url}s are immutable, so one instance can be shared by every
+ * thread that parses the same input.
+ *
+ * <pre>{@code
+ *   UrlCache cache = new UrlCache(10000);
+ *   Urls.setCache(cache);
+ *   ...
+ *   double hitRate = (double) cache.hits() / (cache.hits() + cache.misses());
+ * }</pre>
+ *
+ * <p>Lookups and insertions never take a lock. Each input can only be stored in one of four
+ * slots picked by its hash, and a new input replaces the least recently read of them (CLOCK),
+ * so inputs seen only once are evicted before hot ones.
+ */
+public final class UrlCache {
+
+  private final ClockCache<String, Url> urls;
+
+  /**
+   * Creates a cache with room for {@code maximumSize} URLs, rounded up to a power of two and to
+   * at least four. Since each input can only go in one set, a set can fill up before the cache
+   * does.
+   */
+  public UrlCache(@Nonnegative int maximumSize) {
+    this.urls = new ClockCache<>(maximumSize);
+  }
+
+  /** Returns the number of lookups that found their input. */
+  public long hits() {
+    return urls.stats()[ClockCache.HITS];
+  }
+
+  /** Returns the number of lookups that didn't find their input. */
+  public long misses() {
+    return urls.stats()[ClockCache.MISSES];
+  }
+
+  /** Returns the number of URLs replaced to make room for another. */
+  public long evictions() {
+    return urls.stats()[ClockCache.EVICTIONS];
+  }
+
+  /** Removes every URL. The statistics are kept. */
+  public void clear() {
+    urls.clear();
+  }
+
+  @Nullable Url get(@Nonnull String input) {
+    return urls.get(input);
+  }
+
+  void put(@Nonnull String input, @Nonnull Url url) {
+    urls.putIfAbsent(input, url);
+  }
+}
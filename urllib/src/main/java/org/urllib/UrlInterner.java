@@ -0,0 +1,50 @@
+package org.urllib;
+
+import javax.annotation.Nonnegative;
+import org.urllib.internal.ClockCache;
+import org.urllib.internal.Interning;
+
+/**
+ * Bounded pools that {@link Urls#parse} canonicalizes hosts, path segments and query keys
+ * through once registered with {@link Urls#setInterner}. URLs parsed from different inputs
+ * then share one {@link Host}, with its {@code name()} and {@code display()} strings, and one
+ * instance of each pooled string, which shrinks the heap when many URLs with common hosts are
+ * held at once. Schemes need no pool: every URL already shares the same two strings.
+ *
+ * <pre>{@code
+ *   Urls.setInterner(new UrlInterner(100000, 100000));
+ * }</pre>
+ *
+ * <p>The pools are caches like {@link UrlCache}: they never take a lock, and when one is full,
+ * a value that was pooled but never looked up again is the first to be dropped. Dropped values
+ * stay in the URLs that hold them, so a pool that is too small costs memory, never
+ * correctness. Since the path and query of a URL parsed from a {@code String} are decoded on
+ * first access, they're pooled then.
+ */
+public final class UrlInterner {
+
+  final Interning interning;
+
+  /**
+   * Creates pools with room for {@code maximumHosts} hosts and {@code maximumComponents} path
+   * segments and query keys, each rounded up to a power of two.
+   */
+  public UrlInterner(@Nonnegative int maximumHosts, @Nonnegative int maximumComponents) {
+    this.interning = new Interning(maximumHosts, maximumComponents);
+  }
+
+  /** Returns the number of values that were found in a pool, rather than added to it. */
+  public long hits() {
+    return interning.stats()[ClockCache.HITS];
+  }
+
+  /** Returns the number of values that were added to a pool. */
+  public long misses() {
+    return interning.stats()[ClockCache.MISSES];
+  }
+
+  /** Empties the pools. URLs that already share an instance keep sharing it. */
+  public void clear() {
+    interning.clear();
+  }
+}
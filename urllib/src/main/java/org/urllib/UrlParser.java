@@ -0,0 +1,133 @@
+package org.urllib;
+
+import javax.annotation.Nonnull;
+import org.urllib.internal.DecodeBuffer;
+import org.urllib.internal.Paths;
+import org.urllib.internal.Queries;
+import org.urllib.internal.Scheme;
+import org.urllib.internal.SplitIndex;
+import org.urllib.internal.Type;
+import org.urllib.internal.authority.Authority;
+import org.urllib.internal.authority.Hosts;
+
+/**
+ * Parses URLs like {@link Urls#parse}, but into one {@link MutableUrl} that is reused for every
+ * input. The split, the decoded components and the offsets of the path's segments and the
+ * query's parameters are all kept in buffers owned by the parser, which only grow. Once they're
+ * large enough, parsing a URL whose hostname is an ASCII domain name and reading its components
+ * allocates nothing. Other hostnames, such as IP addresses and internationalized names, are
+ * converted as {@code Urls.parse} does.
+ *
+ * <p>A parser is not thread-safe: use one per thread, or take them from a pool. Call
+ * {@link MutableUrl#toImmutable} on results that need to outlive the next call to
+ * {@link #parse}.
+ *
+ * <p>{@link Urls#outcomes} and {@link ParseListener}s don't see URLs parsed here.
+ */
+public final class UrlParser {
+
+  private final SplitIndex split = new SplitIndex();
+  private final int[] authority = new int[3];
+  private final DecodeBuffer buffer = new DecodeBuffer();
+  private final MutableUrl url = new MutableUrl(buffer);
+
+  // Decode each segment and parameter into the buffer, as Paths.parse and Queries.parse do.
+  private final Paths.SegmentHandler segments = new Paths.SegmentHandler() {
+    @Override public void segment(CharSequence path, int start, int end) {
+      int decodedStart = buffer.length();
+      buffer.appendDecoded(path, start, end, false);
+      url.addSegment(decodedStart, buffer.length());
+    }
+
+    @Override public void removeLast() {
+      url.removeSegment();
+    }
+  };
+  private final Queries.ParamHandler params = new Queries.ParamHandler() {
+    @Override public boolean param(CharSequence query, int keyStart, int keyEnd,
+        int valueStart, int valueEnd) {
+      int decodedKeyStart = buffer.length();
+      buffer.appendDecoded(query, keyStart, keyEnd, true);
+      int decodedValueStart = buffer.length();
+      buffer.appendDecoded(query, valueStart, valueEnd, true);
+      url.addParam(decodedKeyStart, decodedValueStart, decodedValueStart, buffer.length());
+      return true;
+    }
+  };
+
+  /**
+   * Parses {@code input}, returning this parser's {@link MutableUrl} filled with the result.
+   *
+   * @throws IllegalArgumentException for any input that {@link Urls#parse} rejects.
+   */
+  @Nonnull public MutableUrl parse(@Nonnull CharSequence input) {
+    SplitIndex split = SplitIndex.sanitizeAndSplit(input, null, this.split);
+    CharSequence trim = split.url();
+    if (split.urlType() != Type.FULL) {
+      throw Urls.notFullUrl();
+    }
+    Scheme scheme = Scheme.find(trim, split.schemeStart(), split.schemeEnd());
+    if (scheme == null) {
+      throw Urls.badScheme();
+    }
+
+    MutableUrl url = this.url;
+    url.reset(scheme);
+    buffer.clear();
+    parseAuthority(trim, split.authorityStart(), split.authorityEnd());
+    if (split.pathStart() != -1) {
+      url.setDirectory(Paths.split(trim, split.pathStart(), split.pathEnd(), segments));
+    }
+    if (split.queryStart() != -1) {
+      Queries.split(trim, split.queryStart(), split.queryEnd(), params);
+    }
+    if (split.fragmentStart() != -1) {
+      int start = buffer.length();
+      buffer.appendDecoded(trim, split.fragmentStart(), split.fragmentEnd(), false);
+      url.setFragment(start, buffer.length());
+    }
+    return url;
+  }
+
+  private void parseAuthority(CharSequence trim, int start, int end) {
+    // Validating a hostname that isn't ASCII converts it, so leave that to Authority.split().
+    int[] bounds = authority;
+    if (isAsciiDns(trim, start, end, bounds)) {
+      buffer.appendLowerCase(trim, bounds[0], bounds[1]);
+      url.setHost(bounds[2], null);
+      return;
+    }
+
+    // Throws if the authority is invalid.
+    Authority authority = Authority.split(trim, start, end, null);
+    String name = authority.host().name();
+    buffer.append(name, 0, name.length());
+    url.setHost(authority.port(), authority.host());
+  }
+
+  /**
+   * Returns whether {@code trim[start, end)} is a valid authority whose hostname is an ASCII DNS
+   * name, storing the bounds of the name, less any trailing dot, and the port in {@code bounds}
+   * as {@link Authority#isValid(CharSequence, int, int, int[])} does.
+   */
+  static boolean isAsciiDns(CharSequence trim, int start, int end, int[] bounds) {
+    if (!isAsciiWithoutEscapes(trim, start, end) || !Authority.isValid(trim, start, end, bounds)
+        || !Hosts.isAsciiDns(trim, bounds[0], bounds[1])) {
+      return false;
+    }
+    if (trim.charAt(bounds[1] - 1) == '.') {
+      bounds[1]--;
+    }
+    return true;
+  }
+
+  private static boolean isAsciiWithoutEscapes(CharSequence str, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = str.charAt(i);
+      if (c >= 0x80 || c == '%') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
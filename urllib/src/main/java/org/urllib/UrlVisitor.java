@@ -0,0 +1,193 @@
+package org.urllib;
+
+import java.util.Arrays;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import org.urllib.internal.CharView;
+import org.urllib.internal.DecodeBuffer;
+import org.urllib.internal.Paths;
+import org.urllib.internal.Queries;
+import org.urllib.internal.Scheme;
+import org.urllib.internal.SplitIndex;
+import org.urllib.internal.Type;
+import org.urllib.internal.authority.Authority;
+import org.urllib.internal.authority.Hosts;
+
+/**
+ * Receives the components of a URL from {@link Urls#visit}, in order: scheme, host, port, each
+ * path segment, each query parameter and the fragment. Override the methods for the components
+ * you need; the rest do nothing. Return {@code false} from any of them to stop visiting.
+ *
+ * <p>Components are reported as they appear in {@code Urls.parse(input)}: the host as
+ * {@link Host#name}, the path with {@code .} and {@code ..} resolved, and a parameter without
+ * {@code =} as having an empty value. Raw components are given as a range of {@code url}, which
+ * is the input, or a copy of it with whitespace removed; decoded ones as a {@link CharSequence}
+ * that is only valid until the method returns.
+ *
+ * <p>A visitor keeps the buffers it decodes into, so reusing one avoids allocating. It must not
+ * be passed to two calls to {@code Urls.visit} at once.
+ */
+public abstract class UrlVisitor {
+
+  private final SplitIndex split = new SplitIndex();
+  private final int[] authority = new int[3];
+  private final DecodeBuffer buffer = new DecodeBuffer();
+  private final CharView decoded = new CharView();
+  private final CharView decodedValue = new CharView();
+  // Start and end of each raw path segment.
+  private int[] segmentBounds = new int[16];
+  private int segmentCount;
+
+  private final Paths.SegmentHandler segments = new Paths.SegmentHandler() {
+    @Override public void segment(CharSequence path, int start, int end) {
+      if (segmentBounds.length == 2 * segmentCount) {
+        segmentBounds = Arrays.copyOf(segmentBounds, 2 * segmentBounds.length);
+      }
+      segmentBounds[2 * segmentCount] = start;
+      segmentBounds[2 * segmentCount + 1] = end;
+      segmentCount++;
+    }
+
+    @Override public void removeLast() {
+      if (segmentCount > 0) {
+        segmentCount--;
+      }
+    }
+  };
+
+  // Visits the parameters of the query as Queries.parse finds them.
+  private final Queries.ParamHandler params = new Queries.ParamHandler() {
+    @Override public boolean param(CharSequence url, int keyStart, int keyEnd, int valueStart,
+        int valueEnd) {
+      buffer.clear();
+      buffer.appendDecoded(url, keyStart, keyEnd, true);
+      int decodedKeyEnd = buffer.length();
+      buffer.appendDecoded(url, valueStart, valueEnd, true);
+      char[] chars = buffer.chars();
+      return visitParam(url, keyStart, keyEnd, valueStart, valueEnd,
+          decoded.set(chars, 0, decodedKeyEnd),
+          decodedValue.set(chars, decodedKeyEnd, buffer.length()));
+    }
+  };
+
+  /**
+   * Receives {@code "http"} or {@code "https"}.
+   */
+  public boolean visitScheme(@Nonnull String scheme) {
+    return true;
+  }
+
+  /**
+   * Receives the hostname and its type: {@code "DNS"}, {@code "IDN"}, {@code "IPv4"} or
+   * {@code "IPv6"}.
+   */
+  public boolean visitHost(@Nonnull CharSequence name, @Nonnull String type) {
+    return true;
+  }
+
+  /**
+   * Receives the port, which is the scheme's default if the URL has none.
+   */
+  public boolean visitPort(@Nonnegative int port) {
+    return true;
+  }
+
+  public boolean visitPathSegment(@Nonnull CharSequence url, int start, int end,
+      @Nonnull CharSequence decoded) {
+    return true;
+  }
+
+  /**
+   * Receives a query parameter. {@code value} is decoded from {@code url[valueStart,
+   * valueEnd)}, which is empty if the parameter has no {@code =}.
+   */
+  public boolean visitParam(@Nonnull CharSequence url, int keyStart, int keyEnd, int valueStart,
+      int valueEnd, @Nonnull CharSequence key, @Nonnull CharSequence value) {
+    return true;
+  }
+
+  /**
+   * Receives the fragment, if the URL has a {@code #}.
+   */
+  public boolean visitFragment(@Nonnull CharSequence url, int start, int end,
+      @Nonnull CharSequence decoded) {
+    return true;
+  }
+
+  /**
+   * Visits {@code input}, returning {@code false} if a method stopped the visit. The scheme and
+   * authority are validated before anything is visited.
+   */
+  final boolean accept(CharSequence input) {
+    SplitIndex split = SplitIndex.sanitizeAndSplit(input, null, this.split);
+    CharSequence url = split.url();
+    if (split.urlType() != Type.FULL) {
+      throw Urls.notFullUrl();
+    }
+    Scheme scheme = Scheme.find(url, split.schemeStart(), split.schemeEnd());
+    if (scheme == null) {
+      throw Urls.badScheme();
+    }
+
+    buffer.clear();
+    CharSequence name;
+    String type;
+    int port;
+    int[] bounds = authority;
+    if (UrlParser.isAsciiDns(url, split.authorityStart(), split.authorityEnd(), bounds)) {
+      buffer.appendLowerCase(url, bounds[0], bounds[1]);
+      name = decoded.set(buffer.chars(), 0, buffer.length());
+      type = Hosts.dnsType(name);
+      port = bounds[2];
+    } else {
+      // Throws if the authority is invalid.
+      Authority authority =
+          Authority.split(url, split.authorityStart(), split.authorityEnd(), null);
+      name = authority.host().name();
+      type = Hosts.type(authority.host());
+      port = authority.port();
+    }
+    if (!visitScheme(scheme.name()) || !visitHost(name, type)
+        || !visitPort(port == -1 ? scheme.defaultPort() : port)) {
+      return false;
+    }
+
+    if (split.pathStart() != -1 && !acceptPath(url, split.pathStart(), split.pathEnd())) {
+      return false;
+    }
+    if (split.queryStart() != -1
+        && !Queries.split(url, split.queryStart(), split.queryEnd(), params)) {
+      return false;
+    }
+    if (split.fragmentStart() != -1) {
+      int start = split.fragmentStart();
+      int end = split.fragmentEnd();
+      return visitFragment(url, start, end, decode(url, start, end, false));
+    }
+    return true;
+  }
+
+  /**
+   * Visits the segments of the path as {@link Paths#parse} finds them. A {@code ..} can remove
+   * the segment before it, so they are all found before any is visited.
+   */
+  private boolean acceptPath(CharSequence url, int start, int end) {
+    segmentCount = 0;
+    Paths.split(url, start, end, segments);
+    for (int i = 0; i < segmentCount; i++) {
+      int segmentStart = segmentBounds[2 * i];
+      int segmentEnd = segmentBounds[2 * i + 1];
+      if (!visitPathSegment(url, segmentStart, segmentEnd,
+          decode(url, segmentStart, segmentEnd, false))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private CharSequence decode(CharSequence url, int start, int end, boolean plusToSpace) {
+    buffer.clear();
+    buffer.appendDecoded(url, start, end, plusToSpace);
+    return decoded.set(buffer.chars(), 0, buffer.length());
+  }
+}
@@ -3,17 +3,29 @@ package org.urllib;
 import com.google.auto.value.AutoValue;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.Locale;
-import javax.annotation.Nonnegative;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.List;
+import java.util.concurrent.Executor;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.urllib.ParseListener.Operation;
+import org.urllib.ParseListener.Stage;
+import org.urllib.internal.CodepointMatcher;
+import org.urllib.internal.Interning;
+import org.urllib.internal.InvalidUrlException;
+import org.urllib.internal.ParseFailure;
 import org.urllib.internal.Paths;
 import org.urllib.internal.PercentDecoder;
 import org.urllib.internal.PercentEncoder;
+import org.urllib.internal.Probe;
 import org.urllib.internal.Queries;
 import org.urllib.internal.Scheme;
-import org.urllib.internal.SplitUrl;
+import org.urllib.internal.SplitIndex;
 import org.urllib.internal.Strings;
+import org.urllib.internal.StripedCounters;
 import org.urllib.internal.Type;
+import org.urllib.internal.Utf8View;
 import org.urllib.internal.authority.Authority;
 
 /**
@@ -22,6 +34,22 @@ import org.urllib.internal.authority.Authority;
  */
 public final class Urls {
 
+  @Nullable private static volatile ParseListener listener;
+  @Nullable private static volatile UrlCache cache;
+  private static final StripedCounters outcomes = new StripedCounters(ParseOutcomes.size());
+
+  private static final Batch<Url> PARSE_BATCH = new Batch<Url>() {
+    @Override Url apply(CharSequence input) {
+      return parse(input);
+    }
+  };
+
+  private static final Batch<String> ESCAPE_BATCH = new Batch<String>() {
+    @Override String apply(CharSequence input) {
+      return escape(input);
+    }
+  };
+
   /**
    * Given a valid {@code http} or {@code https} URL, performs the minimal amount
    * of escaping to return a {@link java.net.URI}.
@@ -127,6 +155,13 @@ public final class Urls {
    * not valid ASCII DNS, IDN, IPv4, or IPv6; or the port is invalid.
    */
   @Nonnull public static URI createURI(@Nonnull String fullUrl) {
+    return createURI((CharSequence) fullUrl);
+  }
+
+  /**
+   * Like {@link #createURI(String)}, reading the URL in place from any {@link CharSequence}.
+   */
+  @Nonnull public static URI createURI(@Nonnull CharSequence fullUrl) {
     String escaped = escape(fullUrl);
 
     try {
@@ -136,41 +171,120 @@ public final class Urls {
     }
   }
 
+  /**
+   * Like {@link #createURI(String)}, reading the URL in place from {@code chars[offset, offset +
+   * length)}.
+   */
+  @Nonnull public static URI createURI(@Nonnull char[] chars, int offset, int length) {
+    return createURI(CharBuffer.wrap(chars, offset, length));
+  }
+
   @Nonnull public static String escape(@Nonnull String url) {
-    String trim = Strings.sanitizeWhitespace(url);
-    SplitUrl split = SplitUrl.split(trim);
+    return escape((CharSequence) url);
+  }
+
+  /**
+   * Like {@link #escape(String)}, reading the URL in place from {@code chars[offset, offset +
+   * length)}.
+   */
+  @Nonnull public static String escape(@Nonnull char[] chars, int offset, int length) {
+    return escape(CharBuffer.wrap(chars, offset, length));
+  }
+
+  /**
+   * Like {@link #escape(String)}, reading the URL in place from any {@link CharSequence}.
+   */
+  @Nonnull public static String escape(@Nonnull CharSequence url) {
+    Probe probe = probe(Operation.ESCAPE);
+    try {
+      String escaped = escape(url, probe, null);
+      complete(Operation.ESCAPE, probe, url.length(), null);
+      return escaped;
+    } catch (RuntimeException e) {
+      complete(Operation.ESCAPE, probe, url.length(), e);
+      throw e;
+    }
+  }
 
+  /**
+   * Escapes {@code url}. If {@code failure} isn't null, a rejection is reported to it and
+   * {@code null} returned; otherwise it's thrown.
+   */
+  @Nullable private static String escape(CharSequence url, @Nullable Probe probe,
+      @Nullable ParseFailure failure) {
+    // Sanitizing is done while splitting, so it's reported as part of SPLIT.
+    SplitIndex split = SplitIndex.sanitizeAndSplit(url, failure);
+    if (split == null) {
+      return null;
+    }
+    if (probe != null) {
+      probe.mark(Stage.SPLIT);
+    }
+    String escaped = escape(url, split, probe, failure);
+    if (escaped == null && split.url() != url) {
+      failure.unsanitize(url);
+    }
+    return escaped;
+  }
+
+  @Nullable private static String escape(CharSequence url, SplitIndex split,
+      @Nullable Probe probe, @Nullable ParseFailure failure) {
+    CharSequence trim = split.url();
     if (split.urlType() != Type.FULL) {
-      throw new IllegalArgumentException(
+      if (failure != null) {
+        failure.reject(Rejection.NOT_FULL_URL, Strings.unsanitizedIndex(trim, 0));
+        return null;
+      }
+      throw new InvalidUrlException(Rejection.NOT_FULL_URL,
           "Not a full URL: " + url);
     }
 
     StringBuilder sb = new StringBuilder();
 
-    if (split.scheme() != null) {
-      String scheme = split.scheme().toLowerCase(Locale.US);
-      if (scheme.equals("http") || scheme.equals("https")) {
-        sb.append(scheme).append(':');
+    if (split.schemeStart() != -1) {
+      Scheme scheme = Scheme.find(trim, split.schemeStart(), split.schemeEnd());
+      if (scheme != null) {
+        sb.append(scheme.name()).append(':');
+      } else if (failure != null) {
+        failure.reject(Rejection.BAD_SCHEME, split.schemeStart());
+        return null;
       } else {
-        throw new IllegalArgumentException(
+        throw new InvalidUrlException(Rejection.BAD_SCHEME,
             "Only http and https schemes are supported. Input: " + url);
       }
     }
 
-    if (split.authority() != null) {
-      sb.append("//").append(Authority.split(split.authority()));
+    if (split.authorityStart() != -1) {
+      Authority authority =
+          Authority.split(trim, split.authorityStart(), split.authorityEnd(), probe, failure);
+      if (authority == null) {
+        return null;
+      }
+      sb.append("//").append(authority);
     }
 
-    if (split.path() != null) {
-      sb.append(PercentEncoder.reEncodePath(split.path()).replace('\\', '/'));
+    if (split.pathStart() != -1) {
+      sb.append(PercentEncoder.reEncodePath(trim, split.pathStart(), split.pathEnd())
+          .replace('\\', '/'));
+      if (probe != null) {
+        probe.mark(Stage.PATH);
+      }
     }
 
-    if (split.query() != null) {
-      sb.append('?').append(PercentEncoder.reEncodeQuery(split.query()));
+    if (split.queryStart() != -1) {
+      sb.append('?').append(
+          PercentEncoder.reEncodeQuery(trim, split.queryStart(), split.queryEnd()));
+      if (probe != null) {
+        probe.mark(Stage.QUERY);
+      }
     }
 
-    if (split.fragment() != null) {
-      sb.append('#').append(PercentEncoder.reEncodeFragment(split.fragment()));
+    if (split.fragmentStart() != -1) {
+      sb.append('#').append(
+          PercentEncoder.reEncodeFragment(trim, split.fragmentStart(), split.fragmentEnd()));
+      if (probe != null) {
+        probe.mark(Stage.FRAGMENT);
+      }
     }
 
     return sb.toString();
@@ -185,106 +299,510 @@ public final class Urls {
   }
 
   @Nonnull public static Url parse(String url) {
-    SplitUrl split = SplitUrl.split(Strings.sanitizeWhitespace(url));
-    if (split.urlType() != Type.FULL) {
-      throw new IllegalArgumentException("URL must have a scheme and host. Eg: http://host.com/");
-    }
+    return parse((CharSequence) url);
+  }
 
-    UrlBuilder builder = new UrlBuilder(Scheme.valueOf(split.scheme()), split.authority());
+  /**
+   * Like {@link #parse(String)}, reading the URL in place from {@code chars[offset, offset +
+   * length)}. The path, query and fragment are decoded before this returns, so the array may be
+   * reused afterwards.
+   */
+  @Nonnull public static Url parse(@Nonnull char[] chars, int offset, int length) {
+    return parse(CharBuffer.wrap(chars, offset, length));
+  }
 
-    if (!Strings.isNullOrEmpty(split.path())) {
-      builder.path(Paths.parse(split.path()));
+  /**
+   * Like {@link #parse(String)}, reading the URL in place from any {@link CharSequence}. Unless
+   * the input is a {@code String}, the path, query and fragment are decoded before this returns,
+   * so a mutable input may be changed afterwards.
+   */
+  @Nonnull public static Url parse(@Nonnull CharSequence url) {
+    Probe probe = probe(Operation.PARSE);
+    try {
+      Url parsed = parse(url, probe, null);
+      complete(Operation.PARSE, probe, url.length(), null);
+      return parsed;
+    } catch (RuntimeException e) {
+      complete(Operation.PARSE, probe, url.length(), e);
+      throw e;
     }
+  }
 
-    if (!Strings.isNullOrEmpty(split.query())) {
-      builder.query(Queries.parse(split.query()));
+  /**
+   * Parses a URL from {@code length} bytes of UTF-8 starting at {@code offset}. Equivalent to
+   * {@code parse(new String(utf8, offset, length, UTF_8))}, including for malformed UTF-8, whose
+   * sequences are replaced by U+FFFD first, but only the host and the components that need
+   * percent-decoding are ever decoded to a {@code String}. The bytes are copied, so the array may
+   * be reused once this returns.
+   */
+  @Nonnull public static Url parse(@Nonnull byte[] utf8, int offset, int length) {
+    Probe probe = probe(Operation.PARSE);
+    try {
+      Utf8View sanitized = Utf8View.sanitize(utf8, offset, length);
+      if (probe != null) {
+        probe.mark(Stage.SANITIZE);
+      }
+      Url parsed = parseSanitized(sanitized, probe);
+      complete(Operation.PARSE, probe, length, null);
+      return parsed;
+    } catch (RuntimeException e) {
+      complete(Operation.PARSE, probe, length, e);
+      throw e;
     }
+  }
 
-    if (!Strings.isNullOrEmpty(split.fragment())) {
-      builder.fragment(PercentDecoder.decodeAll(split.fragment()));
+  /**
+   * Parses a URL from the UTF-8 bytes between the buffer's position and limit, as in
+   * {@link #parse(byte[], int, int)}. The buffer's position is not changed.
+   */
+  @Nonnull public static Url parse(@Nonnull ByteBuffer utf8) {
+    Probe probe = probe(Operation.PARSE);
+    int length = utf8.remaining();
+    try {
+      Utf8View sanitized = Utf8View.sanitize(utf8);
+      if (probe != null) {
+        probe.mark(Stage.SANITIZE);
+      }
+      Url parsed = parseSanitized(sanitized, probe);
+      complete(Operation.PARSE, probe, length, null);
+      return parsed;
+    } catch (RuntimeException e) {
+      complete(Operation.PARSE, probe, length, e);
+      throw e;
     }
+  }
 
-    return builder.create();
+  /**
+   * Parses each input as {@link #parse(CharSequence)} would, spreading the work across the
+   * available processors. The result at index {@code i} holds either the URL parsed from
+   * {@code urls[i]} or the {@link IllegalArgumentException} that rejected it, so one bad input
+   * doesn't abort the batch.
+   */
+  @Nonnull public static List<ParseResult<Url>> parseAll(@Nonnull CharSequence[] urls) {
+    return parseAll(urls, Batch.defaultExecutor());
   }
 
-  private Urls() {}
+  /**
+   * Like {@link #parseAll(CharSequence[])}, running work on {@code executor} as well as on the
+   * calling thread.
+   */
+  @Nonnull public static List<ParseResult<Url>> parseAll(@Nonnull CharSequence[] urls,
+      @Nonnull Executor executor) {
+    return PARSE_BATCH.run(urls, executor);
+  }
 
-  @AutoValue
-  abstract static class ImmutableUrl implements Url {
+  /**
+   * Like {@link #parseAll(CharSequence[])}. The list is copied before any work starts.
+   */
+  @Nonnull public static List<ParseResult<Url>> parseAll(
+      @Nonnull List<? extends CharSequence> urls) {
+    return parseAll(urls, Batch.defaultExecutor());
+  }
 
-    @Nonnegative abstract int defaultPort();
+  @Nonnull public static List<ParseResult<Url>> parseAll(
+      @Nonnull List<? extends CharSequence> urls, @Nonnull Executor executor) {
+    return PARSE_BATCH.run(urls.toArray(new CharSequence[urls.size()]), executor);
+  }
 
-    @Nonnull @Override public Url resolve(String reference) {
-      String sanitized = Strings.sanitizeWhitespace(reference);
-      if (sanitized.isEmpty()) {
-        return this;
-      }
+  /**
+   * Escapes each input as {@link #escape(CharSequence)} would, spreading the work across the
+   * available processors. Results are in input order, as in {@link #parseAll(CharSequence[])}.
+   */
+  @Nonnull public static List<ParseResult<String>> escapeAll(@Nonnull CharSequence[] urls) {
+    return escapeAll(urls, Batch.defaultExecutor());
+  }
 
-      SplitUrl split = SplitUrl.split(sanitized);
+  @Nonnull public static List<ParseResult<String>> escapeAll(@Nonnull CharSequence[] urls,
+      @Nonnull Executor executor) {
+    return ESCAPE_BATCH.run(urls, executor);
+  }
 
-      if (split.urlType() == Type.FULL) {
-        return parse(reference);
-      } else if (split.urlType() == Type.PROTOCOL_RELATIVE) {
-        return parse(scheme() + ':' + reference);
-      }
+  @Nonnull public static List<ParseResult<String>> escapeAll(
+      @Nonnull List<? extends CharSequence> urls) {
+    return escapeAll(urls, Batch.defaultExecutor());
+  }
 
-      UrlBuilder builder = new UrlBuilder(this);
+  @Nonnull public static List<ParseResult<String>> escapeAll(
+      @Nonnull List<? extends CharSequence> urls, @Nonnull Executor executor) {
+    return ESCAPE_BATCH.run(urls.toArray(new CharSequence[urls.size()]), executor);
+  }
 
-      if (!Strings.isNullOrEmpty(split.path())) {
-        builder.path(path().resolve(split.path()))
-            .query(Queries.empty())
-            .fragment("");
-      }
+  /**
+   * Returns whether {@link #parse(CharSequence)} would accept {@code url}. The scheme, host and
+   * port are checked in place, so nothing is allocated unless the input has internal line breaks
+   * or its hostname has non-ASCII characters or percent-escapes, which need the full parser.
+   * Nothing is thrown, and no outcome is recorded in {@link #outcomes}.
+   */
+  public static boolean isValid(@Nonnull CharSequence url) {
+    int start = 0;
+    int end = url.length();
+    while (start < end && CodepointMatcher.ASCII_WHITESPACE.matches(url.charAt(start))) {
+      start++;
+    }
+    while (end > start && CodepointMatcher.ASCII_WHITESPACE.matches(url.charAt(end - 1))) {
+      end--;
+    }
 
-      if (!Strings.isNullOrEmpty(split.query())) {
-        builder.query(Queries.parse(split.query()))
-            .fragment("");
+    // The scheme, as SplitIndex finds it.
+    if (start == end || !CodepointMatcher.ALPHA.matches(url.charAt(start))) {
+      return false;
+    }
+    int i = start + 1;
+    for (; i < end; i++) {
+      char c = url.charAt(i);
+      if (c == ':') {
+        break;
+      } else if (CodepointMatcher.ASCII_NEWLINE.matches(c)) {
+        return isValidAfterSanitizing(url);
+      } else if (!CodepointMatcher.ALPHANUMERIC.matches(c) && c != '+' && c != '-' && c != '.') {
+        return false;
       }
+    }
+    if (i == end || Scheme.find(url, start, i) == null) {
+      return false;
+    }
 
-      if (!Strings.isNullOrEmpty(split.fragment())) {
-        builder.fragment(PercentDecoder.decodeAll(split.fragment()));
+    // The authority follows any number of slashes.
+    i++;
+    while (i < end && (url.charAt(i) == '/' || url.charAt(i) == '\\')) {
+      i++;
+    }
+    int authorityStart = i;
+    for (; i < end; i++) {
+      char c = url.charAt(i);
+      if (c == '/' || c == '\\' || c == '?' || c == '#') {
+        break;
+      } else if (CodepointMatcher.ASCII_NEWLINE.matches(c)) {
+        return isValidAfterSanitizing(url);
       }
+    }
+    return authorityStart < end && Authority.isValid(url, authorityStart, i);
+  }
+
+  /**
+   * Passes the components of {@code url} to {@code visitor} as {@link #parse(CharSequence)}
+   * would find them, without building a {@link Url}, and returns {@code false} if the visitor
+   * stopped early. Once the visitor's buffers are large enough, nothing is allocated unless the
+   * hostname needs converting, as in {@link UrlParser}. No outcome is recorded in
+   * {@link #outcomes}.
+   *
+   * @throws IllegalArgumentException for any input that {@code parse} rejects, before anything
+   * is visited.
+   */
+  public static boolean visit(@Nonnull CharSequence url, @Nonnull UrlVisitor visitor) {
+    return visitor.accept(url);
+  }
+
+  private static boolean isValidAfterSanitizing(CharSequence url) {
+    // Removing line breaks can join the scheme or authority back together.
+    return isValid(Strings.sanitizeWhitespace(url));
+  }
+
+  /**
+   * Like {@link #parse(CharSequence)}, but an invalid input is returned as a
+   * {@link ParseResult} holding its {@link Rejection} and the index in {@code url} where it was
+   * found, rather than thrown. No exception is created, which makes rejecting an input several
+   * times cheaper; prefer this when many inputs are expected to be invalid.
+   *
+   * <p>The only exception is a non-ASCII hostname that {@link java.net.IDN} rejects, which it
+   * reports by throwing internally.
+   */
+  @Nonnull public static ParseResult<Url> tryParse(@Nonnull CharSequence url) {
+    Probe probe = probe(Operation.PARSE);
+    ParseFailure failure = new ParseFailure();
+    try {
+      return result(Operation.PARSE, probe, url, parse(url, probe, failure), failure);
+    } catch (RuntimeException e) {
+      complete(Operation.PARSE, probe, url.length(), e);
+      throw e;
+    }
+  }
 
-      return builder.create();
+  /**
+   * Like {@link #escape(CharSequence)}, returning an invalid input's {@link Rejection} and
+   * position as in {@link #tryParse}.
+   */
+  @Nonnull public static ParseResult<String> tryEscape(@Nonnull CharSequence url) {
+    Probe probe = probe(Operation.ESCAPE);
+    ParseFailure failure = new ParseFailure();
+    try {
+      return result(Operation.ESCAPE, probe, url, escape(url, probe, failure), failure);
+    } catch (RuntimeException e) {
+      complete(Operation.ESCAPE, probe, url.length(), e);
+      throw e;
     }
+  }
+
+  private static <T> ParseResult<T> result(Operation operation, @Nullable Probe probe,
+      CharSequence input, @Nullable T value, ParseFailure failure) {
+    if (value != null) {
+      complete(operation, probe, input.length(), null);
+      return ParseResult.success(value);
+    }
+
+    Rejection reason = failure.reason();
+    outcomes.increment(ParseOutcomes.rejectedIndex(operation, reason));
+    if (probe != null) {
+      probe.complete(input.length(), false);
+    }
+    return ParseResult.rejected(reason, failure.position());
+  }
+
+  /**
+   * Returns a {@link Url} equal to {@code url} that keeps only its canonical string, as returned
+   * by {@code toString()}, and the offsets of its path, query and fragment. Each component is
+   * parsed from the string again whenever it's read, so this trades CPU for heap when many
+   * URLs are held but their components seldom read. The string is built here, so the result's
+   * {@code toString()} is free.
+   *
+   * <p>A URL whose canonical string doesn't parse back to it is returned unchanged: one with
+   * an unpaired surrogate in its path, query or fragment, or a query parameter with an empty
+   * key and value.
+   */
+  @Nonnull public static Url compact(@Nonnull Url url) {
+    return CompactUrl.of(url);
+  }
+
+  /**
+   * Registers a listener that receives timings from {@link #parse}, {@link #escape} and
+   * {@link Url#resolve}, replacing any previous listener. Pass {@code null} to stop
+   * collecting timings.
+   */
+  public static void setListener(@Nullable ParseListener listener) {
+    Urls.listener = listener;
+  }
+
+  /**
+   * Registers a cache that {@link #parse} and {@link #tryParse} consult for {@code String}
+   * inputs, replacing any previous cache. Only accepted inputs are cached; a hit still counts
+   * in {@link #outcomes}, but reports no stages to a {@link ParseListener}. Pass {@code null}
+   * to stop caching.
+   */
+  public static void setCache(@Nullable UrlCache cache) {
+    Urls.cache = cache;
+  }
 
-    @Override @Nonnull public URI uri() {
-      try {
-        return new URI(toString());
-      } catch (URISyntaxException e) {
-        // Reaching this point would mean a bug in our url encoding.
-        throw new AssertionError(
-            "Please file a bug at https://github.com/EricEdens/urllib/issues");
+  /**
+   * Registers pools that parsed hosts, path segments and query keys are canonicalized
+   * through, replacing any previous ones. Pass {@code null} to stop pooling.
+   */
+  public static void setInterner(@Nullable UrlInterner interner) {
+    Interning.install(interner == null ? null : interner.interning);
+  }
+
+  /**
+   * Returns the number of inputs that {@link #parse}, {@link #escape} and {@link Url#resolve}
+   * have accepted and rejected since the JVM started, broken down by {@link Rejection}.
+   */
+  @Nonnull public static ParseOutcomes outcomes() {
+    return new ParseOutcomes(outcomes.sum());
+  }
+
+  @Nullable private static Probe probe(Operation operation) {
+    return Probe.start(listener, operation);
+  }
+
+  private static void complete(Operation operation, @Nullable Probe probe, int inputLength,
+      @Nullable RuntimeException failure) {
+    if (failure == null) {
+      outcomes.increment(ParseOutcomes.acceptedIndex(operation));
+    } else if (failure instanceof InvalidUrlException) {
+      outcomes.increment(
+          ParseOutcomes.rejectedIndex(operation, ((InvalidUrlException) failure).reason()));
+    }
+    if (probe != null) {
+      probe.complete(inputLength, failure == null);
+    }
+  }
+
+  /**
+   * Parses {@code url}. If {@code failure} isn't null, a rejection is reported to it and
+   * {@code null} returned; otherwise it's thrown.
+   */
+  @Nullable private static Url parse(CharSequence url, @Nullable Probe probe,
+      @Nullable ParseFailure failure) {
+    // Other CharSequences may change, so only Strings are safe keys.
+    UrlCache cache = url instanceof String ? Urls.cache : null;
+    if (cache != null) {
+      Url cached = cache.get((String) url);
+      if (cached != null) {
+        return cached;
       }
     }
+    Url parsed = parseUncached(url, probe, failure);
+    if (cache != null && parsed != null) {
+      cache.put((String) url, parsed);
+    }
+    return parsed;
+  }
+
+  @Nullable private static Url parseUncached(CharSequence url, @Nullable Probe probe,
+      @Nullable ParseFailure failure) {
+    // Sanitizing is done while splitting, so it's reported as part of SPLIT.
+    SplitIndex split = SplitIndex.sanitizeAndSplit(url, failure);
+    if (split == null) {
+      return null;
+    }
+    Url parsed = parseSplit(split, probe, failure);
+    if (parsed == null && split.url() != url) {
+      failure.unsanitize(url);
+    }
+    return parsed;
+  }
 
-    @Override public String toString() {
-      StringBuilder sb = new StringBuilder()
-          .append(scheme())
-          .append("://")
-          .append(host().name());
+  private static Url parseSanitized(Utf8View sanitized, @Nullable Probe probe) {
+    return parseSplit(SplitIndex.split(sanitized), probe, null);
+  }
 
-      if (port() != defaultPort()) {
-        sb.append(':').append(port());
+  /**
+   * Parses the split of {@code split.url()}. Positions reported to {@code failure} are indices
+   * into it.
+   */
+  @Nullable private static Url parseSplit(SplitIndex split, @Nullable Probe probe,
+      @Nullable ParseFailure failure) {
+    CharSequence trim = split.url();
+    if (probe != null) {
+      probe.mark(Stage.SPLIT);
+    }
+    if (split.urlType() != Type.FULL) {
+      if (failure != null) {
+        failure.reject(Rejection.NOT_FULL_URL, Strings.unsanitizedIndex(trim, 0));
+        return null;
       }
+      throw notFullUrl();
+    }
 
-      sb.append(path().encoded());
+    Scheme scheme = Scheme.find(trim, split.schemeStart(), split.schemeEnd());
+    if (scheme == null) {
+      if (failure != null) {
+        failure.reject(Rejection.BAD_SCHEME, split.schemeStart());
+        return null;
+      }
+      throw badScheme();
+    }
+    Authority authority =
+        Authority.split(trim, split.authorityStart(), split.authorityEnd(), probe, failure);
+    if (authority == null) {
+      return null;
+    }
+    if (trim instanceof String || trim instanceof Utf8View) {
+      return new LazyUrl(trim, scheme, authority, split);
+    }
 
-      if (!query().isEmpty()) {
-        sb.append('?').append(query().encoded());
+    // Anything else may change once we return, so decode the components now.
+    UrlBuilder builder = new UrlBuilder(scheme, authority);
+    if (split.pathEnd() > split.pathStart()) {
+      builder.path(Paths.parse(trim, split.pathStart(), split.pathEnd()));
+    }
+    if (split.queryEnd() > split.queryStart()) {
+      builder.query(Queries.parse(trim, split.queryStart(), split.queryEnd()));
+    }
+    if (split.fragmentEnd() > split.fragmentStart()) {
+      builder.fragment(PercentDecoder.decodeAll(trim, split.fragmentStart(), split.fragmentEnd()));
+    }
+    return builder.create();
+  }
+
+  static InvalidUrlException notFullUrl() {
+    return new InvalidUrlException(Rejection.NOT_FULL_URL,
+        "URL must have a scheme and host. Eg: http://host.com/");
+  }
+
+  static InvalidUrlException badScheme() {
+    return new InvalidUrlException(Rejection.BAD_SCHEME, "Scheme must be http or https.");
+  }
+
+  static Url resolve(Url base, String reference) {
+    Probe probe = probe(Operation.RESOLVE);
+    try {
+      Url resolved = resolve(base, reference, probe);
+      complete(Operation.RESOLVE, probe, reference.length(), null);
+      return resolved;
+    } catch (RuntimeException e) {
+      complete(Operation.RESOLVE, probe, reference.length(), e);
+      throw e;
+    }
+  }
+
+  private static Url resolve(Url base, String reference, @Nullable Probe probe) {
+    String sanitized = Strings.sanitizeWhitespace(reference);
+    if (probe != null) {
+      probe.mark(Stage.SANITIZE);
+    }
+    if (sanitized.isEmpty()) {
+      return base;
+    }
+
+    SplitIndex split = SplitIndex.split(sanitized);
+    if (probe != null) {
+      probe.mark(Stage.SPLIT);
+    }
+
+    if (split.urlType() == Type.FULL) {
+      return parse(reference, probe, null);
+    } else if (split.urlType() == Type.PROTOCOL_RELATIVE) {
+      return parse(base.scheme() + ':' + reference, probe, null);
+    }
+
+    UrlBuilder builder = new UrlBuilder(base);
+
+    if (split.pathEnd() > split.pathStart()) {
+      builder.path(base.path().resolve(sanitized.substring(split.pathStart(), split.pathEnd())))
+          .query(Queries.empty())
+          .fragment("");
+      if (probe != null) {
+        probe.mark(Stage.PATH);
       }
+    }
 
-      if (!fragment().isEmpty()) {
-        sb.append('#').append(PercentEncoder.encodeFragment(fragment()));
+    if (split.queryEnd() > split.queryStart()) {
+      builder.query(Queries.parse(sanitized, split.queryStart(), split.queryEnd()))
+          .fragment("");
+      if (probe != null) {
+        probe.mark(Stage.QUERY);
       }
+    }
 
-      return sb.toString();
+    if (split.fragmentEnd() > split.fragmentStart()) {
+      builder.fragment(
+          PercentDecoder.decodeAll(sanitized, split.fragmentStart(), split.fragmentEnd()));
+      if (probe != null) {
+        probe.mark(Stage.FRAGMENT);
+      }
     }
 
+    return builder.create();
+  }
+
+  private Urls() {}
+
+  @AutoValue
+  abstract static class ImmutableUrl extends AbstractUrl {
+
+    // Memoized as in LazyUrl.
+    private String string;
+    private volatile URI uri;
+
     public static Url create(String scheme, Host host, int port, Path path, Query query,
         String fragment, int defaultPort) {
       return new AutoValue_Urls_ImmutableUrl(
           scheme, host, port, path, query, fragment, defaultPort);
     }
+
+    @Override public String toString() {
+      String result = string;
+      if (result == null) {
+        string = result = super.toString();
+      }
+      return result;
+    }
+
+    @Nonnull @Override public URI uri() {
+      URI result = uri;
+      if (result == null) {
+        uri = result = super.uri();
+      }
+      return result;
+    }
   }
 }
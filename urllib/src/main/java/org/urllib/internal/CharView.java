@@ -0,0 +1,53 @@
+package org.urllib.internal;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link CharSequence} over a range of a char array, without copying it. The view sees later
+ * writes to the array, and {@link #set} points it at another range so one instance can be
+ * reused.
+ */
+public final class CharView implements CharSequence {
+
+  private char[] chars;
+  private int start;
+  private int end;
+
+  public CharView() {
+    this(new char[0], 0, 0);
+  }
+
+  public CharView(@Nonnull char[] chars, int start, int end) {
+    set(chars, start, end);
+  }
+
+  @Nonnull public CharView set(@Nonnull char[] chars, int start, int end) {
+    this.chars = chars;
+    this.start = start;
+    this.end = end;
+    return this;
+  }
+
+  @Override public int length() {
+    return end - start;
+  }
+
+  @Override public char charAt(int index) {
+    if (index < 0 || index >= end - start) {
+      throw new IndexOutOfBoundsException("index " + index + ", length " + (end - start));
+    }
+    return chars[start + index];
+  }
+
+  @Override public CharSequence subSequence(int start, int end) {
+    if (start < 0 || start > end || end > this.end - this.start) {
+      throw new IndexOutOfBoundsException(
+          "start " + start + ", end " + end + ", length " + (this.end - this.start));
+    }
+    return new CharView(chars, this.start + start, this.start + end);
+  }
+
+  @Override public String toString() {
+    return new String(chars, start, end - start);
+  }
+}
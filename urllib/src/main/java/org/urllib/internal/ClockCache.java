@@ -0,0 +1,122 @@
+package org.urllib.internal;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A bounded map that never takes a lock, for caches shared by every parsing thread. It is
+ * set-associative: a key's hash picks a set of four slots, and only those are searched or
+ * evicted from. A slot is marked when it's read. A new entry takes an empty slot in its set or,
+ * if there's none, replaces the first unmarked one, clearing marks as it goes (CLOCK). New
+ * entries start unmarked, so keys seen only once are evicted first. Slots are swapped with
+ * compare-and-set; a write that loses a race is simply dropped.
+ */
+public final class ClockCache<K, V> {
+
+  private static final int WAYS = 4;
+
+  // Indices into stats().
+  public static final int HITS = 0;
+  public static final int MISSES = 1;
+  public static final int EVICTIONS = 2;
+
+  private final AtomicReferenceArray<Entry<K, V>> slots;
+  private final int setMask;
+  private final StripedCounters stats = new StripedCounters(3);
+
+  /**
+   * Creates a cache with room for {@code maximumSize} entries, rounded up to a power of two and
+   * to at least four.
+   *
+   * @throws IllegalArgumentException if {@code maximumSize} isn't between 1 and 2^30.
+   */
+  public ClockCache(int maximumSize) {
+    if (maximumSize < 1 || maximumSize > 1 << 30) {
+      throw new IllegalArgumentException("Size must be between 1 and 2^30: " + maximumSize);
+    }
+    int capacity = Math.max(WAYS, Integer.highestOneBit(maximumSize - 1) << 1);
+    this.setMask = capacity / WAYS - 1;
+    this.slots = new AtomicReferenceArray<>(capacity);
+  }
+
+  @Nullable public V get(@Nonnull K key) {
+    int set = set(key);
+    for (int i = set; i < set + WAYS; i++) {
+      Entry<K, V> entry = slots.get(i);
+      if (entry != null && entry.key.equals(key)) {
+        // Skip the write when already marked, so hot slots aren't written on every read.
+        if (!entry.referenced) {
+          entry.referenced = true;
+        }
+        stats.increment(HITS);
+        return entry.value;
+      }
+    }
+    stats.increment(MISSES);
+    return null;
+  }
+
+  /**
+   * Returns the value for {@code key} if there is one, or else stores and returns
+   * {@code value}. Unlike {@link #get}, finding the key doesn't count as a hit.
+   */
+  @Nonnull public V putIfAbsent(@Nonnull K key, @Nonnull V value) {
+    int set = set(key);
+    for (int i = set; i < set + WAYS; i++) {
+      Entry<K, V> entry = slots.get(i);
+      if (entry == null) {
+        slots.compareAndSet(i, null, new Entry<>(key, value));
+        return value;
+      } else if (entry.key.equals(key)) {
+        return entry.value;
+      }
+    }
+
+    // The set is full. Two passes: the first clears marks, so the second always finds a victim.
+    for (int pass = 0; pass < 2 * WAYS; pass++) {
+      int i = set + pass % WAYS;
+      Entry<K, V> entry = slots.get(i);
+      if (entry != null && entry.referenced) {
+        entry.referenced = false;
+      } else {
+        if (slots.compareAndSet(i, entry, new Entry<>(key, value)) && entry != null) {
+          stats.increment(EVICTIONS);
+        }
+        return value;
+      }
+    }
+    return value;
+  }
+
+  public void clear() {
+    for (int i = 0; i < slots.length(); i++) {
+      slots.set(i, null);
+    }
+  }
+
+  /** Returns the number of hits, misses and evictions, indexed by {@link #HITS} and so on. */
+  @Nonnull public long[] stats() {
+    return stats.sum();
+  }
+
+  private int set(K key) {
+    int h = key.hashCode();
+    // Spread the high bits down, as HashMap does, since only the low bits pick the set.
+    h ^= h >>> 16;
+    return (h & setMask) * WAYS;
+  }
+
+  private static final class Entry<K, V> {
+
+    final K key;
+    final V value;
+    // Racy: a lost update only changes which entry is evicted next.
+    volatile boolean referenced;
+
+    Entry(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package org.urllib.internal;
 
+import java.nio.CharBuffer;
 import java.util.Arrays;
 import javax.annotation.Nonnull;
 
@@ -22,6 +23,27 @@ public abstract class CodepointMatcher {
         : str.substring(start, end);
   }
 
+  /**
+   * Like {@link #trim(String)}. A trimmed non-String input is returned as a view rather than
+   * copied.
+   */
+  public CharSequence trim(@Nonnull CharSequence str) {
+    if (str instanceof String) {
+      return trim((String) str);
+    }
+    int start = 0;
+    int end = str.length();
+    while (start < end && matches(str.charAt(start))) {
+      start++;
+    }
+    while (start < end && matches(str.charAt(end - 1))) {
+      end--;
+    }
+    return start == 0 && end == str.length()
+        ? str
+        : CharBuffer.wrap(str, start, end);
+  }
+
   public boolean matches(char c) {
     return matches((int) c);
   }
@@ -0,0 +1,141 @@
+package org.urllib.internal;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+
+/**
+ * A reusable buffer that the components of a URL are written into one after another, decoding
+ * them as {@link PercentDecoder} would but without allocating a {@code String} for each. The
+ * arrays only grow, so once they're large enough, filling the buffer allocates nothing. Not
+ * thread-safe.
+ */
+public final class DecodeBuffer {
+
+  private final CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+  private char[] chars = new char[128];
+  private int length;
+
+  // Percent-decoding works on UTF-8, so a component with escapes is encoded here first.
+  private byte[] bytes = new byte[128];
+  private ByteBuffer in = ByteBuffer.wrap(bytes);
+  private CharBuffer out = CharBuffer.wrap(chars);
+
+  /**
+   * Returns the chars written since the last {@link #clear}, in {@code [0, length())}. The array
+   * is replaced when the buffer grows.
+   */
+  @Nonnull public char[] chars() {
+    return chars;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  public void clear() {
+    length = 0;
+  }
+
+  /**
+   * Appends {@code str[start, end)} unchanged.
+   */
+  public void append(CharSequence str, int start, int end) {
+    ensureCapacity(end - start);
+    for (int i = start; i < end; i++) {
+      chars[length++] = str.charAt(i);
+    }
+  }
+
+  /**
+   * Appends {@code str[start, end)} with ASCII letters in lower case.
+   */
+  public void appendLowerCase(CharSequence str, int start, int end) {
+    ensureCapacity(end - start);
+    for (int i = start; i < end; i++) {
+      char c = str.charAt(i);
+      chars[length++] = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+  }
+
+  /**
+   * Appends {@code str[start, end)}, decoded like {@link PercentDecoder#decodeAll} or, if
+   * {@code plusToSpace}, {@link PercentDecoder#decodeQueryComponent}.
+   */
+  public void appendDecoded(CharSequence str, int start, int end, boolean plusToSpace) {
+    if (!PercentDecoder.requiresDecoding(str, start, end, CodepointMatcher.ALL)) {
+      ensureCapacity(end - start);
+      for (int i = start; i < end; i++) {
+        char c = str.charAt(i);
+        chars[length++] = c == '+' && plusToSpace ? ' ' : c;
+      }
+      return;
+    }
+
+    // Encode first: it may replace the array.
+    int encoded = encode(str, start, end);
+    int n = PercentDecoder.decodeInPlace(bytes, encoded, CodepointMatcher.ALL, plusToSpace);
+    // UTF-8 never decodes to more chars than it has bytes.
+    ensureCapacity(n);
+    // Cast so that Java 9's covariant overrides aren't linked against.
+    ((Buffer) in).limit(n);
+    ((Buffer) in).position(0);
+    ((Buffer) out).limit(chars.length);
+    ((Buffer) out).position(length);
+    utf8.reset();
+    utf8.decode(in, out, true);
+    utf8.flush(out);
+    length = out.position();
+  }
+
+  /**
+   * Writes {@code str[start, end)} to {@link #bytes} as UTF-8, replacing an unpaired surrogate
+   * with {@code ?} as {@link String#getBytes} does, and returns the number of bytes.
+   */
+  private int encode(CharSequence str, int start, int end) {
+    int capacity = 3 * (end - start);
+    if (bytes.length < capacity) {
+      bytes = new byte[Math.max(capacity, 2 * bytes.length)];
+      in = ByteBuffer.wrap(bytes);
+    }
+
+    int p = 0;
+    for (int i = start; i < end; i++) {
+      char c = str.charAt(i);
+      if (c < 0x80) {
+        bytes[p++] = (byte) c;
+      } else if (c < 0x800) {
+        bytes[p++] = (byte) (0xC0 | c >> 6);
+        bytes[p++] = (byte) (0x80 | c & 0x3F);
+      } else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+        bytes[p++] = (byte) (0xE0 | c >> 12);
+        bytes[p++] = (byte) (0x80 | c >> 6 & 0x3F);
+        bytes[p++] = (byte) (0x80 | c & 0x3F);
+      } else if (Character.isHighSurrogate(c) && i + 1 < end
+          && Character.isLowSurrogate(str.charAt(i + 1))) {
+        int codepoint = Character.toCodePoint(c, str.charAt(++i));
+        bytes[p++] = (byte) (0xF0 | codepoint >> 18);
+        bytes[p++] = (byte) (0x80 | codepoint >> 12 & 0x3F);
+        bytes[p++] = (byte) (0x80 | codepoint >> 6 & 0x3F);
+        bytes[p++] = (byte) (0x80 | codepoint & 0x3F);
+      } else {
+        bytes[p++] = '?';
+      }
+    }
+    return p;
+  }
+
+  private void ensureCapacity(int extra) {
+    if (chars.length - length < extra) {
+      chars = Arrays.copyOf(chars, Math.max(length + extra, 2 * chars.length));
+      out = CharBuffer.wrap(chars);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package org.urllib.internal;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.urllib.Host;
+
+/**
+ * Pools of hosts and decoded components that parsing canonicalizes through, so that equal
+ * values parsed from different URLs share one instance. Nothing is pooled until an instance
+ * is installed with {@link #install}.
+ */
+public final class Interning {
+
+  @Nullable private static volatile Interning current;
+
+  private final ClockCache<Host, Host> hosts;
+  private final ClockCache<String, String> components;
+
+  public Interning(int maximumHosts, int maximumComponents) {
+    this.hosts = new ClockCache<>(maximumHosts);
+    this.components = new ClockCache<>(maximumComponents);
+  }
+
+  public static void install(@Nullable Interning interning) {
+    current = interning;
+  }
+
+  /**
+   * Returns the pooled host equal to {@code host}, pooling it if there is none.
+   */
+  @Nonnull public static Host host(@Nonnull Host host) {
+    Interning interning = current;
+    return interning == null ? host : intern(interning.hosts, host);
+  }
+
+  /**
+   * Returns the pooled string equal to {@code component}, a path segment or a query key,
+   * pooling it if there is none.
+   */
+  @Nonnull public static String component(@Nonnull String component) {
+    Interning interning = current;
+    return interning == null ? component : intern(interning.components, component);
+  }
+
+  /** Returns the hits, misses and evictions of both pools, as {@link ClockCache#stats}. */
+  @Nonnull public long[] stats() {
+    long[] stats = hosts.stats();
+    long[] componentStats = components.stats();
+    for (int i = 0; i < stats.length; i++) {
+      stats[i] += componentStats[i];
+    }
+    return stats;
+  }
+
+  public void clear() {
+    hosts.clear();
+    components.clear();
+  }
+
+  private static <T> T intern(ClockCache<T, T> pool, T value) {
+    T pooled = pool.get(value);
+    return pooled != null ? pooled : pool.putIfAbsent(value, value);
+  }
+}
@@ -0,0 +1,24 @@
+package org.urllib.internal;
+
+import javax.annotation.Nonnull;
+import org.urllib.Rejection;
+
+/**
+ * Thrown when input can't be parsed as a URL, recording the {@link Rejection} so that
+ * it can be counted without inspecting the message.
+ */
+public class InvalidUrlException extends IllegalArgumentException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Rejection reason;
+
+  public InvalidUrlException(@Nonnull Rejection reason, String message) {
+    super(message);
+    this.reason = reason;
+  }
+
+  @Nonnull public Rejection reason() {
+    return reason;
+  }
+}
@@ -0,0 +1,50 @@
+package org.urllib.internal;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.urllib.Rejection;
+
+/**
+ * Records why and where input was rejected, for callers that don't want an exception. Methods
+ * that accept a {@code ParseFailure} report to it and return {@code null} where they would
+ * otherwise throw; given {@code null}, they throw as before.
+ */
+public final class ParseFailure {
+
+  @Nullable private Rejection reason;
+  private int position = -1;
+
+  /**
+   * Records the rejection, keeping the first if there was already one.
+   */
+  public void reject(@Nonnull Rejection reason, int position) {
+    if (this.reason == null) {
+      this.reason = reason;
+      this.position = position;
+    }
+  }
+
+  /**
+   * Maps the recorded position, an index into {@code Strings.sanitizeWhitespace(input)}, back to
+   * the index of the same char in {@code input}.
+   */
+  public void unsanitize(@Nonnull CharSequence input) {
+    if (reason != null) {
+      position = Strings.unsanitizedIndex(input, position);
+    }
+  }
+
+  /**
+   * Returns the recorded rejection, or {@code null} if nothing was rejected.
+   */
+  @Nullable public Rejection reason() {
+    return reason;
+  }
+
+  /**
+   * Returns the index at which the input was rejected, or -1 if nothing was rejected.
+   */
+  public int position() {
+    return position;
+  }
+}
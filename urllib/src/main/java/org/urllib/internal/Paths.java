@@ -5,7 +5,6 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import org.urllib.Path;
 
@@ -54,23 +53,78 @@ public class Paths {
   }
 
   public static Path parse(String path) {
-    return path.isEmpty()
+    return parse(path, 0, path.length());
+  }
+
+  /**
+   * Parses {@code path[start, end)} without first copying it to a substring.
+   */
+  public static Path parse(CharSequence path, int start, int end) {
+    return start == end
         ? ImmutablePath.EMPTY
-        : ImmutablePath.create(new PathBuilder().splitAndAdd(path, true));
+        : ImmutablePath.create(new PathBuilder().splitAndAdd(path, start, end, true));
+  }
+
+  /**
+   * Creates a {@link org.urllib.Path} from segments that are already split and decoded. A path
+   * without segments is always a directory.
+   */
+  public static Path create(List<String> segments, boolean isDirectory) {
+    return segments.isEmpty() ? ImmutablePath.EMPTY : ImmutablePath.create(segments, isDirectory);
   }
 
   public static Path empty() {
     return ImmutablePath.EMPTY;
   }
 
-  static class PathBuilder {
+  /**
+   * Receives the segments that {@link #split} finds.
+   */
+  public interface SegmentHandler {
+
+    /**
+     * Receives the segment {@code path[start, end)}, which isn't empty, {@code .} or {@code ..}.
+     */
+    void segment(CharSequence path, int start, int end);
+
+    /** Removes the last segment received, if there is one, for {@code ..}. */
+    void removeLast();
+  }
+
+  /**
+   * Splits {@code path[start, end)} at each slash and backslash, sending its segments to
+   * {@code handler}. Empty and {@code .} segments are skipped, and {@code ..} removes the segment
+   * before it. Returns whether the path is a directory: whether its last segment was empty,
+   * {@code .} or {@code ..}.
+   */
+  public static boolean split(CharSequence path, int start, int end, SegmentHandler handler) {
+    boolean isDir = false;
+    int segmentStart = start;
+    for (int i = start; i <= end; i++) {
+      if (i < end && path.charAt(i) != '/' && path.charAt(i) != '\\') {
+        continue;
+      }
+      int dots = dots(path, segmentStart, i);
+      if (segmentStart == i || dots == 1) {
+        isDir = true;
+      } else if (dots == 2) {
+        handler.removeLast();
+        isDir = true;
+      } else {
+        handler.segment(path, segmentStart, i);
+        isDir = false;
+      }
+      segmentStart = i + 1;
+    }
+    return isDir;
+  }
 
-    private static final CodepointMatcher SLASH_MATCHER = CodepointMatcher.anyOf("/\\");
-    private static final Pattern SINGLE_DOT = Pattern.compile("^\\.|%2[eE]$");
-    private static final Pattern DOUBLE_DOT = Pattern.compile("^(\\.|%2[eE]){2}$");
+  static class PathBuilder implements SegmentHandler {
 
     private final LinkedList<String> segments;
     private boolean isDir;
+    // Whether the segments being added by splitAndAdd() are decoded.
+    private boolean decode;
 
     PathBuilder() {
       this(new LinkedList<String>(), false);
@@ -82,37 +136,48 @@ public class Paths {
     }
 
     PathBuilder splitAndAdd(String segment, boolean decode) {
-      if (SLASH_MATCHER.matchesAnyOf(segment)) {
-        int i = 0;
-        int j = 0;
-        for (; j < segment.length(); j++) {
-          if (SLASH_MATCHER.matches(segment.charAt(j))) {
-            add(segment.substring(i, j), decode);
-            i = j + 1;
-          }
-        }
-        return add(segment.substring(i, j), decode);
-      } else {
-        return add(segment, decode);
+      return splitAndAdd(segment, 0, segment.length(), decode);
+    }
+
+    PathBuilder splitAndAdd(CharSequence path, int start, int end, boolean decode) {
+      this.decode = decode;
+      isDir = split(path, start, end, this);
+      return this;
+    }
+
+    @Override public void segment(CharSequence path, int start, int end) {
+      segments.add(Interning.component(decode
+          ? PercentDecoder.decodeAll(path, start, end)
+          : path.subSequence(start, end).toString()));
+    }
+
+    @Override public void removeLast() {
+      if (!segments.isEmpty()) {
+        segments.removeLast();
       }
     }
 
-    private PathBuilder add(String segment, boolean decode) {
-      if (segment.isEmpty()) {
-        isDir = true;
-      } else if (SINGLE_DOT.matcher(segment).matches()) {
-        isDir = true;
-      } else if (DOUBLE_DOT.matcher(segment).matches()) {
-        if (!segments.isEmpty()) {
-          segments.removeLast();
-        }
-        isDir = true;
+  }
+
+  /**
+   * Returns 1 if the segment {@code path[start, end)} is {@code .}, 2 if it's {@code ..}, and 0
+   * otherwise. A dot may be written as {@code %2e} or {@code %2E}.
+   */
+  public static int dots(CharSequence path, int start, int end) {
+    int dots = 0;
+    int i = start;
+    while (i < end && dots < 3) {
+      if (path.charAt(i) == '.') {
+        i++;
+      } else if (i + 2 < end && path.charAt(i) == '%' && path.charAt(i + 1) == '2'
+          && (path.charAt(i + 2) == 'e' || path.charAt(i + 2) == 'E')) {
+        i += 3;
       } else {
-        segments.add(decode ? PercentDecoder.decodeAll(segment) : segment);
-        isDir = false;
+        return 0;
       }
-      return this;
+      dots++;
     }
+    return dots < 3 ? dots : 0;
   }
 
   @AutoValue
@@ -126,8 +191,18 @@ public class Paths {
 
     static Path create(List<String> segments, boolean isDir) {
       String filename = isDir ? "" : segments.get(segments.size() - 1);
-      return new AutoValue_Paths_ImmutablePath(segments.isEmpty(), segments, isDir,
-          filename, encode(isDir, segments));
+      return new AutoValue_Paths_ImmutablePath(segments.isEmpty(), segments, isDir, filename);
+    }
+
+    // Racy single-check: encoding is idempotent and the result is immutable.
+    private String encoded;
+
+    @Nonnull @Override public String encoded() {
+      String result = encoded;
+      if (result == null) {
+        encoded = result = encode(isDirectory(), segments());
+      }
+      return result;
     }
 
     private static String encode(boolean isDir, List<String> segments) {
@@ -5,23 +5,54 @@ public final class PercentDecoder {
   private PercentDecoder() {}
 
   public static String decodeAll(String str) {
-    return decode(str, CodepointMatcher.ALL);
+    return decode(str, 0, str.length(), CodepointMatcher.ALL, false);
+  }
+
+  /**
+   * Decodes {@code str[start, end)} without first copying it to a substring.
+   */
+  public static String decodeAll(CharSequence str, int start, int end) {
+    return decode(str, start, end, CodepointMatcher.ALL, false);
+  }
+
+  /**
+   * Like {@link #decodeAll(String, int, int)}, but a literal {@code +} decodes to a space.
+   */
+  public static String decodeQueryComponent(CharSequence str, int start, int end) {
+    return decode(str, start, end, CodepointMatcher.ALL, true);
   }
 
   public static String decodeUnreserved(String str) {
-    return decode(str, CodepointMatcher.UNRESERVED);
+    return decode(str, 0, str.length(), CodepointMatcher.UNRESERVED, false);
   }
 
-  private static String decode(String str, CodepointMatcher decodeSet) {
-    if (str.isEmpty()) return str;
-    if (!requiresDecoding(str, decodeSet)) return str;
+  private static String decode(CharSequence str, int start, int end, CodepointMatcher decodeSet,
+      boolean plusToSpace) {
+    if (!requiresDecoding(str, start, end, decodeSet)) {
+      // Without escapes, '+' is replaced char by char so that an unpaired surrogate isn't
+      // turned into '?' by encoding to UTF-8.
+      String decoded = str.subSequence(start, end).toString();
+      return plusToSpace ? decoded.replace('+', ' ') : decoded;
+    }
+
+    byte[] bytes = str instanceof Utf8View
+        ? ((Utf8View) str).copyBytes(start, end)
+        : str.subSequence(start, end).toString().getBytes(StandardCharsets.UTF_8);
+    int p = decodeInPlace(bytes, bytes.length, decodeSet, plusToSpace);
+    return new String(bytes, 0, p, StandardCharsets.UTF_8);
+  }
 
-    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+  /**
+   * Decodes the percent-escapes in {@code bytes[0, length)} that decode to a member of
+   * {@code decodeSet}, writing the result over the input, and returns its length.
+   */
+  static int decodeInPlace(byte[] bytes, int length, CodepointMatcher decodeSet,
+      boolean plusToSpace) {
     int p = 0;
     int i = 0;
-    for (int end = bytes.length; i < end; i++) {
+    for (; i < length; i++) {
       byte b = bytes[i];
-      if (b == '%' && i < end - 2) {
+      if (b == '%' && i < length - 2) {
         byte b1 = bytes[i + 1];
         byte b2 = bytes[i + 2];
         int decoded = Hex.decodeHex(b1, b2);
@@ -30,22 +61,33 @@ public final class PercentDecoder {
           i += 2;
           continue;
         }
+      } else if (b == '+' && plusToSpace) {
+        b = ' ';
       }
 
-      if (p != i) {
-        bytes[p] = b;
-      }
-      p++;
+      bytes[p++] = b;
     }
-    return new String(bytes, 0, p, StandardCharsets.UTF_8);
+    return p;
   }
 
-  private static boolean requiresDecoding(String str, CodepointMatcher decodeSet) {
-    for (int i = 0; i < str.length() - 2; i++) {
+  /**
+   * Returns whether {@code str[start, end)} has a percent-escape that decodes to a member of
+   * {@code decodeSet}.
+   */
+  static boolean requiresDecoding(CharSequence str, int start, int end,
+      CodepointMatcher decodeSet) {
+    Utf8View bytes = str instanceof Utf8View ? (Utf8View) str : null;
+    for (int i = start; i < end; i++) {
+      if (bytes != null) {
+        i = bytes.indexOfAny(i, end, '%', '%', '%', '%');
+        if (i == end) {
+          break;
+        }
+      }
       char c = str.charAt(i);
-      if (c == '%') {
+      if (c == '%' && i < end - 2) {
         char c1 = str.charAt(i + 1);
-        char c2 = str.charAt(i +2);
+        char c2 = str.charAt(i + 2);
         int decoded = Hex.decodeHex(c1, c2);
         if (decoded != -1 && decodeSet.matches(decoded)) {
           return true;
@@ -37,24 +37,41 @@ public abstract class PercentEncoder {
     return PercentEncoder.encode(path, reEncodePath, false, true);
   }
 
+  public static String reEncodePath(CharSequence url, int start, int end) {
+    return PercentEncoder.encode(url, start, end, reEncodePath, false, true);
+  }
+
   public static String reEncodeQuery(String query) {
     return PercentEncoder.encode(query, reEncodeQuery, false, true);
   }
 
+  public static String reEncodeQuery(CharSequence url, int start, int end) {
+    return PercentEncoder.encode(url, start, end, reEncodeQuery, false, true);
+  }
+
   public static String reEncodeFragment(String fragment) {
     return PercentEncoder.encode(fragment, safeFragment, false, true);
   }
 
+  public static String reEncodeFragment(CharSequence url, int start, int end) {
+    return PercentEncoder.encode(url, start, end, safeFragment, false, true);
+  }
+
   private static final byte[] UPPER_HEX_DIGITS =
       {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
 
   private static String encode(String src, CodepointMatcher safe, boolean spaceToPlus,
       boolean reEncode) {
-    if (allSafe(src, safe)) {
-      return src;
+    return encode(src, 0, src.length(), safe, spaceToPlus, reEncode);
+  }
+
+  private static String encode(CharSequence src, int start, int end, CodepointMatcher safe,
+      boolean spaceToPlus, boolean reEncode) {
+    if (allSafe(src, start, end, safe)) {
+      return src.subSequence(start, end).toString();
     }
     int p = 0;
-    int[] codepoints = Strings.codePoints(src);
+    int[] codepoints = Strings.codePoints(src, start, end);
     int[] dest = new int[maxEncodedSize(codepoints, safe, reEncode)];
     for (int i = 0, len = codepoints.length; i < len; i++) {
       int codepoint = codepoints[i];
@@ -77,8 +94,9 @@ public abstract class PercentEncoder {
     return new String(dest, 0, p);
   }
 
-  private static boolean allSafe(String src, CodepointMatcher safe) {
-    for (int i = 0; i < src.length(); i++) {
+  private static boolean allSafe(CharSequence src, int start, int end,
+      CodepointMatcher safe) {
+    for (int i = start; i < end; i++) {
       if (!safe.matches(src.charAt(i))) return false;
     }
     return true;
@@ -0,0 +1,61 @@
+package org.urllib.internal;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.urllib.Host;
+import org.urllib.ParseListener;
+import org.urllib.ParseListener.Operation;
+import org.urllib.ParseListener.Stage;
+
+/**
+ * Times the stages of a single operation and reports them to a {@link ParseListener}. A probe
+ * is only created when there is something to report to; callers pass {@code null} otherwise,
+ * and must check for it before calling {@link #mark}.
+ *
+ * <p>The jar is multi-release: on Java 11 and later, a version of this class that also emits
+ * JDK Flight Recorder events replaces this one.
+ */
+public final class Probe {
+
+  private final ParseListener listener;
+  private final Operation operation;
+  private final long start;
+  private long last;
+
+  private Probe(@Nonnull ParseListener listener, @Nonnull Operation operation) {
+    this.listener = listener;
+    this.operation = operation;
+    this.start = System.nanoTime();
+    this.last = start;
+  }
+
+  /**
+   * Returns a probe that has started timing {@code operation}, or {@code null} if nothing
+   * is listening.
+   */
+  @Nullable public static Probe start(@Nullable ParseListener listener,
+      @Nonnull Operation operation) {
+    return listener == null ? null : new Probe(listener, operation);
+  }
+
+  /**
+   * Reports the time since the previous mark (or since the probe was created) as
+   * {@code stage}.
+   */
+  public void mark(@Nonnull Stage stage) {
+    long now = System.nanoTime();
+    listener.onStage(operation, stage, now - last);
+    last = now;
+  }
+
+  /**
+   * Marks the end of {@link Stage#HOST}. The preceding mark must be {@link Stage#AUTHORITY}.
+   */
+  public void hostParsed(@Nonnull String hostname, @Nonnull Host host) {
+    mark(Stage.HOST);
+  }
+
+  public void complete(int inputLength, boolean success) {
+    listener.onComplete(operation, inputLength, success, System.nanoTime() - start);
+  }
+}
@@ -33,33 +33,69 @@ public class Queries {
   }
 
   public static Query parse(String query) {
-    if (query.isEmpty()) return empty();
-    query = query.replace('+', ' ');
-    List<KeyValue> params = new LinkedList<>();
-    int p = 0;
+    return parse(query, 0, query.length());
+  }
+
+  /**
+   * Parses {@code query[start, end)} without first copying it to a substring.
+   */
+  public static Query parse(CharSequence query, int start, int end) {
+    if (start == end) return empty();
+    final List<KeyValue> params = new LinkedList<>();
+    split(query, start, end, new ParamHandler() {
+      @Override public boolean param(CharSequence query, int keyStart, int keyEnd,
+          int valueStart, int valueEnd) {
+        String key = keyStart == keyEnd
+            ? ""
+            : PercentDecoder.decodeQueryComponent(query, keyStart, keyEnd);
+        String value = valueStart == valueEnd
+            ? ""
+            : PercentDecoder.decodeQueryComponent(query, valueStart, valueEnd);
+        params.add(create(Interning.component(key), value));
+        return true;
+      }
+    });
+    return of(params);
+  }
+
+  /**
+   * Receives the parameters that {@link #split} finds.
+   */
+  public interface ParamHandler {
+
+    /**
+     * Receives the parameter whose key is {@code query[keyStart, keyEnd)} and whose value is
+     * {@code query[valueStart, valueEnd)}, which is empty if it has no {@code =}. Returns
+     * {@code false} to stop splitting.
+     */
+    boolean param(CharSequence query, int keyStart, int keyEnd, int valueStart, int valueEnd);
+  }
+
+  /**
+   * Splits {@code query[start, end)} at each {@code &} and each parameter at its first
+   * {@code =}, sending the parameters to {@code handler} and skipping empty ones. Returns
+   * {@code false} if the handler stopped the split.
+   */
+  public static boolean split(CharSequence query, int start, int end, ParamHandler handler) {
+    int paramStart = start;
     int equal = -1;
-    for (int i = 0; i <= query.length(); i++) {
-      if (i == query.length() || query.charAt(i) == '&') {
-        if (i == p) {
-        } else if (equal == -1) {
-          String key = PercentDecoder.decodeAll(query.substring(p, i));
-          params.add(create(key, ""));
-        } else {
-          String key = (p == equal)
-              ? ""
-              : PercentDecoder.decodeAll(query.substring(p, equal));
-          String value = (i == equal + 1)
-              ? ""
-              : PercentDecoder.decodeAll(query.substring(equal + 1, i));
-          params.add(create(key, value));
+    for (int i = start; i <= end; i++) {
+      if (i == end || query.charAt(i) == '&') {
+        if (i > paramStart) {
+          boolean more = equal == -1
+              ? handler.param(query, paramStart, i, i, i)
+              : handler.param(query, paramStart, equal, equal + 1, i);
+          if (!more) {
+            return false;
+          }
         }
         equal = -1;
-        p = i + 1;
+        paramStart = i + 1;
       } else if (query.charAt(i) == '=' && equal == -1) {
         equal = i;
       }
     }
-    return of(params);
+    return true;
   }
 
   public static KeyValue create(String key, String value) {
@@ -74,8 +110,27 @@ public class Queries {
   abstract static class ImmutableQuery implements Query {
 
     static Query create(List<KeyValue> params) {
-      return new AutoValue_Queries_ImmutableQuery(
-          Collections.unmodifiableList(params), toMap(params), encode(params));
+      return new AutoValue_Queries_ImmutableQuery(Collections.unmodifiableList(params));
+    }
+
+    // Racy single-check: both are idempotent to compute and immutable once built.
+    private Map<String, String> map;
+    private String encoded;
+
+    @Override public Map<String, String> asMap() {
+      Map<String, String> result = map;
+      if (result == null) {
+        map = result = toMap(params());
+      }
+      return result;
+    }
+
+    @Override public String encoded() {
+      String result = encoded;
+      if (result == null) {
+        encoded = result = encode(params());
+      }
+      return result;
     }
 
     private static Map<String, String> toMap(List<KeyValue> params) {
@@ -2,6 +2,8 @@ package org.urllib.internal;
 
 import com.google.auto.value.AutoValue;
 import java.util.Locale;
+import javax.annotation.Nullable;
+import org.urllib.Rejection;
 
 @AutoValue
 public abstract class Scheme {
@@ -20,6 +22,30 @@ public abstract class Scheme {
       case "https":
         return HTTPS;
     }
-    throw new IllegalArgumentException("Scheme must be http or https.");
+    throw new InvalidUrlException(Rejection.BAD_SCHEME, "Scheme must be http or https.");
+  }
+
+  /**
+   * Returns {@link #HTTP} or {@link #HTTPS} if {@code url[start, end)} names one of them,
+   * ignoring case, or {@code null} otherwise.
+   */
+  @Nullable public static Scheme find(CharSequence url, int start, int end) {
+    int length = end - start;
+    if (length == 4 && startsWithIgnoreCase(url, start, "http")) {
+      return HTTP;
+    } else if (length == 5 && startsWithIgnoreCase(url, start, "https")) {
+      return HTTPS;
+    }
+    return null;
+  }
+
+  private static boolean startsWithIgnoreCase(CharSequence url, int start, String lower) {
+    for (int i = 0; i < lower.length(); i++) {
+      // Only letters are compared, so setting the case bit lower-cases ASCII.
+      if ((url.charAt(start + i) | 0x20) != lower.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
   }
 }
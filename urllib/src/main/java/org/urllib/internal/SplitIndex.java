@@ -0,0 +1,333 @@
+package org.urllib.internal;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.urllib.Rejection;
+
+/**
+ * The same split as {@link SplitUrl}, recorded as offsets into the original string rather than
+ * as substrings. Each component is the range {@code [start, end)}; an absent component has a
+ * start and end of {@code -1}. The scheme is not lower-cased.
+ *
+ * <p>{@link #sanitizeAndSplit} folds {@link Strings#sanitizeWhitespace} into the same pass: it
+ * trims by moving the offsets rather than copying, and only copies the input if a line break
+ * has to be removed from inside it.
+ *
+ * <p>The split is a loop per component. Setting the {@code urllib.splitTable} system property
+ * to {@code true} selects {@link TableSplit}, a table-driven state machine with the same
+ * results, instead; it's kept so that the two can be compared by {@code SplitBenchmark}.
+ */
+public final class SplitIndex {
+
+  private static final CodepointMatcher slash = CodepointMatcher.or('/', '\\');
+
+  private static final boolean TABLE = useTable();
+
+  // Returned in place of a split when the input contains a line break.
+  static final SplitIndex LINE_BREAK =
+      new SplitIndex("", Type.PATH_RELATIVE, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1);
+
+  // Not final so that UrlParser can reuse one instance; see sanitizeAndSplit(..., into).
+  private CharSequence url;
+  private Type urlType;
+  private int schemeStart;
+  private int schemeEnd;
+  private int authorityStart;
+  private int authorityEnd;
+  private int pathStart;
+  private int pathEnd;
+  private int queryStart;
+  private int queryEnd;
+  private int fragmentStart;
+  private int fragmentEnd;
+
+  /**
+   * Creates an empty split to be filled by {@link #sanitizeAndSplit(CharSequence, ParseFailure,
+   * SplitIndex)}.
+   */
+  public SplitIndex() {
+    this("", Type.PATH_RELATIVE, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1);
+  }
+
+  SplitIndex(CharSequence url, Type urlType, int schemeStart, int schemeEnd,
+      int authorityStart, int authorityEnd, int pathStart, int pathEnd, int queryStart,
+      int queryEnd, int fragmentStart, int fragmentEnd) {
+    set(url, urlType, schemeStart, schemeEnd, authorityStart, authorityEnd, pathStart, pathEnd,
+        queryStart, queryEnd, fragmentStart, fragmentEnd);
+  }
+
+  private SplitIndex set(CharSequence url, Type urlType, int schemeStart, int schemeEnd,
+      int authorityStart, int authorityEnd, int pathStart, int pathEnd, int queryStart,
+      int queryEnd, int fragmentStart, int fragmentEnd) {
+    this.url = url;
+    this.urlType = urlType;
+    this.schemeStart = schemeStart;
+    this.schemeEnd = schemeEnd;
+    this.authorityStart = authorityStart;
+    this.authorityEnd = authorityEnd;
+    this.pathStart = pathStart;
+    this.pathEnd = pathEnd;
+    this.queryStart = queryStart;
+    this.queryEnd = queryEnd;
+    this.fragmentStart = fragmentStart;
+    this.fragmentEnd = fragmentEnd;
+    return this;
+  }
+
+  @Nonnull public static SplitIndex split(@Nonnull CharSequence url) {
+    return split(url, null);
+  }
+
+  /**
+   * Like {@link #split(CharSequence)}, but if {@code failure} isn't null, a URL without a host
+   * is reported to it and {@code null} returned.
+   */
+  @Nullable public static SplitIndex split(@Nonnull CharSequence url,
+      @Nullable ParseFailure failure) {
+    return split(url, failure, false, null);
+  }
+
+  /**
+   * Equivalent to {@code split(Strings.sanitizeWhitespace(url), failure)}, in one pass. The
+   * returned split indexes {@link #url()}, which is {@code url} itself unless a line break had
+   * to be removed from inside it; in that case it's a sanitized copy. A position reported to
+   * {@code failure} is always an index into {@code url}.
+   */
+  @Nullable public static SplitIndex sanitizeAndSplit(@Nonnull CharSequence url,
+      @Nullable ParseFailure failure) {
+    return sanitizeAndSplit(url, failure, null);
+  }
+
+  /**
+   * Like {@link #sanitizeAndSplit(CharSequence, ParseFailure)}, but if {@code into} isn't null,
+   * the split is written to it rather than to a new instance.
+   */
+  @Nullable public static SplitIndex sanitizeAndSplit(@Nonnull CharSequence url,
+      @Nullable ParseFailure failure, @Nullable SplitIndex into) {
+    SplitIndex split = split(url, failure, true, into);
+    if (split != LINE_BREAK) {
+      return split;
+    }
+    split = split(Strings.sanitizeWhitespace(url), failure, false, into);
+    if (split == null && failure != null) {
+      failure.unsanitize(url);
+    }
+    return split;
+  }
+
+  private static boolean useTable() {
+    try {
+      return Boolean.getBoolean("urllib.splitTable");
+    } catch (SecurityException e) {
+      return false;
+    }
+  }
+
+  @Nullable private static SplitIndex split(CharSequence url, @Nullable ParseFailure failure,
+      boolean sanitizing, @Nullable SplitIndex into) {
+    return TABLE
+        ? TableSplit.split(url, failure, sanitizing, into)
+        : splitWithLoops(url, failure, sanitizing, into);
+  }
+
+  /**
+   * Splits {@code url} with a loop per component. If {@code sanitizing}, each loop also looks
+   * for a line break, and {@link #LINE_BREAK} is returned if there's one inside the trimmed
+   * input.
+   */
+  @Nullable static SplitIndex splitWithLoops(CharSequence url, @Nullable ParseFailure failure,
+      boolean sanitizing, @Nullable SplitIndex into) {
+    int begin = 0;
+    int end = url.length();
+    while (begin < end && CodepointMatcher.ASCII_WHITESPACE.matches(url.charAt(begin))) {
+      begin++;
+    }
+    while (begin < end && CodepointMatcher.ASCII_WHITESPACE.matches(url.charAt(end - 1))) {
+      end--;
+    }
+
+    if (begin == end) {
+      return create(into, url, Type.PATH_RELATIVE, -1, -1, -1, -1, begin, begin, -1, -1, -1, -1);
+    }
+
+    Type urlType;
+    int schemeEnd = -1;
+    boolean hasAuthority = false;
+    int i = begin;
+    char first = url.charAt(begin);
+    if (CodepointMatcher.ALPHA.matches(first)) {
+      urlType = Type.PATH_RELATIVE;
+      for (int j = begin + 1; j < end; j++) {
+        char c = url.charAt(j);
+        if (CodepointMatcher.ALPHANUMERIC.matches(c) || c == '+' || c == '-' || c == '.') {
+          continue;
+        } else if (c == ':') {
+          urlType = Type.FULL;
+          schemeEnd = j;
+          hasAuthority = true;
+          i = j + 1;
+        }
+        break;
+      }
+    } else if (slash.matches(first)) {
+      if (end - begin == 2 && slash.matches(url.charAt(begin + 1))) {
+        return create(into,
+            url, Type.PROTOCOL_RELATIVE, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1);
+      } else if (end - begin > 1 && slash.matches(url.charAt(begin + 1))) {
+        urlType = Type.PROTOCOL_RELATIVE;
+        hasAuthority = true;
+      } else {
+        urlType = Type.PATH_ABSOLUTE;
+      }
+    } else if (first == '#') {
+      urlType = Type.FRAGMENT;
+    } else {
+      urlType = Type.PATH_RELATIVE;
+    }
+
+    // Skipping words of UTF-8 can't see line breaks, so it's only used when not sanitizing.
+    Utf8View bytes = !sanitizing && url instanceof Utf8View ? (Utf8View) url : null;
+
+    int authorityStart = -1;
+    int authorityEnd = -1;
+    if (hasAuthority) {
+      while (i < end && slash.matches(url.charAt(i))) {
+        i++;
+      }
+      if (i >= end) {
+        if (failure != null) {
+          failure.reject(Rejection.MISSING_HOST, end);
+          return null;
+        }
+        throw new InvalidUrlException(Rejection.MISSING_HOST,
+            "URL missing host name: " + url.subSequence(begin, end));
+      }
+      authorityStart = i;
+      if (bytes != null) {
+        i = bytes.indexOfAny(i, end, '/', '\\', '?', '#');
+      }
+      for (; i < end; i++) {
+        char c = url.charAt(i);
+        if (c == '/' || c == '\\' || c == '?' || c == '#') {
+          break;
+        } else if (sanitizing && c <= '\r' && (c == '\n' || c == '\r')) {
+          return LINE_BREAK;
+        }
+      }
+      authorityEnd = i;
+    }
+
+    int pathStart = i;
+    if (bytes != null) {
+      i = bytes.indexOfAny(i, end, '?', '#', '#', '#');
+    }
+    for (; i < end; i++) {
+      char c = url.charAt(i);
+      if (c == '?' || c == '#') {
+        break;
+      } else if (sanitizing && c <= '\r' && (c == '\n' || c == '\r')) {
+        return LINE_BREAK;
+      }
+    }
+    int pathEnd = i;
+    if (pathEnd == pathStart) {
+      pathStart = pathEnd = -1;
+    }
+
+    int queryStart = -1;
+    int queryEnd = -1;
+    if (i < end && url.charAt(i) == '?') {
+      queryStart = ++i;
+      if (bytes != null) {
+        i = bytes.indexOfAny(i, end, '#', '#', '#', '#');
+      }
+      for (; i < end; i++) {
+        char c = url.charAt(i);
+        if (c == '#') {
+          break;
+        } else if (sanitizing && c <= '\r' && (c == '\n' || c == '\r')) {
+          return LINE_BREAK;
+        }
+      }
+      queryEnd = i;
+    }
+
+    int fragmentStart = -1;
+    int fragmentEnd = -1;
+    if (i < end) {
+      fragmentStart = i + 1;
+      fragmentEnd = end;
+      if (sanitizing) {
+        for (i++; i < end; i++) {
+          char c = url.charAt(i);
+          if (c == '\n' || c == '\r') {
+            return LINE_BREAK;
+          }
+        }
+      }
+    }
+
+    return create(into, url, urlType, schemeEnd == -1 ? -1 : begin, schemeEnd,
+        authorityStart, authorityEnd, pathStart, pathEnd, queryStart, queryEnd,
+        fragmentStart, fragmentEnd);
+  }
+
+  static SplitIndex create(@Nullable SplitIndex into, CharSequence url, Type urlType,
+      int schemeStart, int schemeEnd, int authorityStart, int authorityEnd, int pathStart,
+      int pathEnd, int queryStart, int queryEnd, int fragmentStart, int fragmentEnd) {
+    if (into == null) {
+      return new SplitIndex(url, urlType, schemeStart, schemeEnd, authorityStart, authorityEnd,
+          pathStart, pathEnd, queryStart, queryEnd, fragmentStart, fragmentEnd);
+    }
+    return into.set(url, urlType, schemeStart, schemeEnd, authorityStart, authorityEnd,
+        pathStart, pathEnd, queryStart, queryEnd, fragmentStart, fragmentEnd);
+  }
+
+  @Nonnull public CharSequence url() {
+    return url;
+  }
+
+  @Nonnull public Type urlType() {
+    return urlType;
+  }
+
+  public int schemeStart() {
+    return schemeStart;
+  }
+
+  public int schemeEnd() {
+    return schemeEnd;
+  }
+
+  public int authorityStart() {
+    return authorityStart;
+  }
+
+  public int authorityEnd() {
+    return authorityEnd;
+  }
+
+  public int pathStart() {
+    return pathStart;
+  }
+
+  public int pathEnd() {
+    return pathEnd;
+  }
+
+  public int queryStart() {
+    return queryStart;
+  }
+
+  public int queryEnd() {
+    return queryEnd;
+  }
+
+  public int fragmentStart() {
+    return fragmentStart;
+  }
+
+  public int fragmentEnd() {
+    return fragmentEnd;
+  }
+}
@@ -4,11 +4,13 @@ import com.google.auto.value.AutoValue;
 import java.util.Locale;
 import javax.annotation.Nullable;
 
+/**
+ * Splits a URL into substrings. See {@link SplitIndex} for the same split without allocating
+ * the components.
+ */
 @AutoValue
 public abstract class SplitUrl {
 
-  private static final CodepointMatcher slash = CodepointMatcher.or('/', '\\');
-
   @Nullable public abstract String scheme();
   @Nullable public abstract String authority();
   @Nullable public abstract String path();
@@ -16,135 +18,26 @@ public abstract class SplitUrl {
   @Nullable public abstract String fragment();
   @Nullable public abstract Type urlType();
 
-  public static SplitUrl split(String url) {
-
-    String trim = CodepointMatcher.ASCII_WHITESPACE.trim(url);
-
-    if (trim.isEmpty()) {
-      return SplitUrl.builder()
-          .path("")
-          .urlType(Type.PATH_RELATIVE)
-          .build();
-    }
-
-    Builder builder;
-    if (CodepointMatcher.ALPHA.matches(trim.charAt(0))) {
-      builder = fullUrlOrRelativePath(trim);
-    } else if (slash.matches(trim.charAt(0))) {
-      if (trim.length() == 2 && slash.matches(trim.charAt(1))) {
-        return SplitUrl.builder()
-            .urlType(Type.PROTOCOL_RELATIVE)
-            .build();
-      } else if (trim.length() > 1 && slash.matches(trim.charAt(1))) {
-        builder = authority(trim, 0).urlType(Type.PROTOCOL_RELATIVE);
-      } else {
-        builder = path(trim, 0).urlType(Type.PATH_ABSOLUTE);
-      }
-    } else if (trim.charAt(0) == '#') {
-      builder = fragment(trim, 0).urlType(Type.FRAGMENT);
-    } else {
-      builder = path(trim, 0).urlType(Type.PATH_RELATIVE);
-    }
-    return builder.build();
-  }
-
-  private static Builder fullUrlOrRelativePath(String url) {
-    for (int i = 1; i < url.length(); i++) {
-      char c = url.charAt(i);
-      if (CodepointMatcher.ALPHANUMERIC.matches(c) || c == '+' || c == '-' || c == '.') {
-        continue;
-      } else if (c == ':') {
-        return authority(url, i + 1)
-            .scheme(url.substring(0, i).toLowerCase(Locale.US))
-            .urlType(Type.FULL);
-      } else {
-        break;
-      }
-    }
-
-    return path(url, 0)
-        .urlType(Type.PATH_RELATIVE);
-  }
-
-  private static Builder authority(String url, int start) {
-
-    while (start < url.length() && slash.matches(url.charAt(start))) {
-      start++;
-    }
-
-    if (start >= url.length()) {
-      throw new IllegalArgumentException("URL missing host name: " + url);
-    }
-
-    Builder builder = null;
-    int i;
-    for (i = start; i < url.length(); i++) {
-      char c = url.charAt(i);
-      if (c == '/' || c == '\\') {
-        builder = path(url, i);
-        break;
-      } else if (c == '?') {
-        builder = query(url, i);
-        break;
-      } else if (c == '#') {
-        builder = fragment(url, i);
-        break;
-      }
+  public static SplitUrl split(CharSequence url) {
+    SplitIndex index = SplitIndex.split(url);
+    Builder builder = builder().urlType(index.urlType());
+    if (index.schemeStart() != -1) {
+      builder.scheme(url.subSequence(index.schemeStart(), index.schemeEnd()).toString()
+          .toLowerCase(Locale.US));
     }
-
-    if (builder == null) {
-      builder = builder();
+    if (index.authorityStart() != -1) {
+      builder.authority(url.subSequence(index.authorityStart(), index.authorityEnd()).toString());
     }
-
-    return builder.authority(url.substring(start, i));
-  }
-
-  private static Builder path(String url, int start) {
-    Builder builder = null;
-    int i;
-    loop:
-    for (i = start; i < url.length(); i++) {
-      char c = url.charAt(i);
-      if (c == '?') {
-        builder = query(url, i);
-        break;
-      } else if (c == '#') {
-        builder = fragment(url, i);
-        break;
-      }
+    if (index.pathStart() != -1) {
+      builder.path(url.subSequence(index.pathStart(), index.pathEnd()).toString());
     }
-
-    if (builder == null) {
-      builder = builder();
+    if (index.queryStart() != -1) {
+      builder.query(url.subSequence(index.queryStart(), index.queryEnd()).toString());
     }
-
-    if (i > start) {
-      builder.path(url.substring(start, i));
+    if (index.fragmentStart() != -1) {
+      builder.fragment(url.subSequence(index.fragmentStart(), index.fragmentEnd()).toString());
     }
-
-    return builder;
-  }
-
-  private static Builder query(String url, int start) {
-    Builder builder = null;
-    int i;
-    start++;
-    for (i = start; i < url.length(); i++) {
-      if (url.charAt(i) == '#') {
-        builder = fragment(url, i);
-        break;
-      }
-    }
-
-    if (builder == null) {
-      builder = builder();
-    }
-
-    return builder.query(url.substring(start, i));
-  }
-
-  private static Builder fragment(String url, int start) {
-    return builder().fragment(url.substring(start + 1));
+    return builder.build();
   }
 
   static Builder builder() {
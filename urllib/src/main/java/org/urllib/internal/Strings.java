@@ -1,5 +1,6 @@
 package org.urllib.internal;
 
+import java.nio.CharBuffer;
 import java.util.Arrays;
 
 public final class Strings {
@@ -7,18 +8,25 @@ public final class Strings {
   private Strings() {}
 
   public static int[] codePoints(String s) {
-    int length = s.length();
-    int arrayPointer = 0;
-    int stringPointer = 0;
-    int[] codepoints = new int[length];
+    return codePoints(s, 0, s.length());
+  }
 
-    while (stringPointer < length) {
-      int codepoint = s.codePointAt(stringPointer);
+  public static int[] codePoints(CharSequence s, int start, int end) {
+    int arrayPointer = 0;
+    int stringPointer = start;
+    int[] codepoints = new int[end - start];
+
+    while (stringPointer < end) {
+      int codepoint = s.charAt(stringPointer);
+      if (Character.isHighSurrogate((char) codepoint) && stringPointer + 1 < end
+          && Character.isLowSurrogate(s.charAt(stringPointer + 1))) {
+        codepoint = Character.toCodePoint((char) codepoint, s.charAt(stringPointer + 1));
+      }
       codepoints[arrayPointer++] = codepoint;
       stringPointer += Character.charCount(codepoint);
     }
 
-    return arrayPointer == stringPointer
+    return arrayPointer == codepoints.length
         ? codepoints
         : Arrays.copyOf(codepoints, arrayPointer);
   }
@@ -82,4 +90,83 @@ public final class Strings {
     return new String(chars, start, p - start);
   }
 
+  /**
+   * Like {@link #sanitizeWhitespace(String)}. When only trimming is needed, a non-String input
+   * is returned as a view rather than copied.
+   */
+  public static CharSequence sanitizeWhitespace(CharSequence str) {
+    if (str instanceof String) {
+      return sanitizeWhitespace((String) str);
+    }
+
+    int start = 0;
+    int end = str.length();
+
+    while (start < end && CodepointMatcher.ASCII_WHITESPACE.matches(str.charAt(start))) {
+      start++;
+    }
+
+    while (end > start && CodepointMatcher.ASCII_WHITESPACE.matches(str.charAt(end - 1))) {
+      end--;
+    }
+
+    int firstNewline = -1;
+
+    for (int i = start; i < end; i++) {
+      if (CodepointMatcher.ASCII_NEWLINE.matches(str.charAt(i))) {
+        firstNewline = i;
+        break;
+      }
+    }
+
+    if (firstNewline == -1) {
+      return start == 0 && end == str.length()
+          ? str
+          : CharBuffer.wrap(str, start, end);
+    }
+
+    char[] chars = new char[end - start];
+
+    int p = 0;
+    for (int i = start; i < end; i++) {
+      if (CodepointMatcher.ASCII_NEWLINE.matches(str.charAt(i))) {
+        i++;
+        while (i < end && CodepointMatcher.ASCII_WHITESPACE.matches(str.charAt(i))) {
+          i++;
+        }
+      }
+      chars[p++] = str.charAt(i);
+    }
+
+    return new String(chars, 0, p);
+  }
+
+  /**
+   * Maps an index into {@code sanitizeWhitespace(str)} back to the index of the same char in
+   * {@code str}. An index past the last char maps to just after it.
+   */
+  public static int unsanitizedIndex(CharSequence str, int index) {
+    int start = 0;
+    int end = str.length();
+    while (start < end && CodepointMatcher.ASCII_WHITESPACE.matches(str.charAt(start))) {
+      start++;
+    }
+    while (end > start && CodepointMatcher.ASCII_WHITESPACE.matches(str.charAt(end - 1))) {
+      end--;
+    }
+
+    int kept = 0;
+    for (int i = start; i < end; i++) {
+      if (CodepointMatcher.ASCII_NEWLINE.matches(str.charAt(i))) {
+        i++;
+        while (i < end && CodepointMatcher.ASCII_WHITESPACE.matches(str.charAt(i))) {
+          i++;
+        }
+      }
+      if (kept++ == index) {
+        return i;
+      }
+    }
+    return end;
+  }
 }
@@ -0,0 +1,44 @@
+package org.urllib.internal;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed set of counters that can be incremented from many threads with little contention.
+ * Each thread increments a copy in one of several stripes, chosen by thread id, and reads sum
+ * the stripes. Reads are not atomic across counters.
+ */
+public final class StripedCounters {
+
+  // Longs per 64-byte cache line; keeps stripes from sharing a line.
+  private static final int LINE = 8;
+  private static final int MAX_STRIPES = 64;
+
+  private final AtomicLongArray cells;
+  private final int counters;
+  private final int stride;
+  private final int mask;
+
+  public StripedCounters(int counters) {
+    int processors = Runtime.getRuntime().availableProcessors();
+    int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(processors * 2 - 1) << 1);
+    this.counters = counters;
+    this.stride = (counters + LINE - 1) / LINE * LINE;
+    this.mask = stripes - 1;
+    this.cells = new AtomicLongArray(stripes * stride);
+  }
+
+  public void increment(int counter) {
+    int stripe = (int) Thread.currentThread().getId() & mask;
+    cells.incrementAndGet(stripe * stride + counter);
+  }
+
+  public long[] sum() {
+    long[] sum = new long[counters];
+    for (int stripe = 0; stripe <= mask; stripe++) {
+      for (int counter = 0; counter < counters; counter++) {
+        sum[counter] += cells.get(stripe * stride + counter);
+      }
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,295 @@
+package org.urllib.internal;
+
+import javax.annotation.Nullable;
+import org.urllib.Rejection;
+
+/**
+ * The split of {@link SplitIndex} as a state machine driven by a table that maps a state and an
+ * ASCII char to the next state. The table is built from classes of char, but flattened so that
+ * each char costs a single lookup. Boundaries are recorded only when the state changes.
+ *
+ * <p>Used in place of the loops in {@link SplitIndex} when the {@code urllib.splitTable} system
+ * property is {@code true}. The loops are the default because they measure faster; see
+ * {@code SplitBenchmark} in urllib-bench for the comparison.
+ */
+final class TableSplit {
+
+  private TableSplit() {}
+
+  // Classes of char. Every non-ASCII char is OTHER.
+  private static final int OTHER = 0;
+  private static final int ALPHA = 1;
+  private static final int SCHEME_CHAR = 2;
+  private static final int COLON = 3;
+  private static final int SLASH = 4;
+  private static final int QUESTION = 5;
+  private static final int HASH = 6;
+  private static final int WHITESPACE = 7;
+  private static final int CLASSES = 8;
+
+  // States, named for the component being scanned. SCHEME and LEADING_SLASH become the start
+  // of a path if no ':' or second slash follows. SLASHES skips the slashes before an authority.
+  private static final int START = 0;
+  private static final int SCHEME = 1;
+  private static final int LEADING_SLASH = 2;
+  private static final int SLASHES = 3;
+  private static final int AUTHORITY = 4;
+  private static final int PATH = 5;
+  private static final int QUERY = 6;
+  private static final int FRAGMENT = 7;
+  private static final int STATES = 8;
+  // Not a state: a line break that SplitIndex.sanitizeAndSplit() has to remove first.
+  private static final int BREAK = 8;
+
+  private static final byte[] CLASS = new byte[0x80];
+  private static final byte[] BY_CLASS = new byte[STATES * CLASSES];
+  // Indexed by (state << 7 | c) for ASCII c.
+  private static final byte[] NEXT = new byte[STATES << 7];
+  // Like NEXT, but every state goes to BREAK on '\n' or '\r'.
+  private static final byte[] NEXT_SANITIZING = new byte[STATES << 7];
+
+  static {
+    for (char c = 'a'; c <= 'z'; c++) {
+      CLASS[c] = ALPHA;
+      CLASS[c - 'a' + 'A'] = ALPHA;
+    }
+    for (char c = '0'; c <= '9'; c++) {
+      CLASS[c] = SCHEME_CHAR;
+    }
+    CLASS['+'] = CLASS['-'] = CLASS['.'] = SCHEME_CHAR;
+    CLASS[':'] = COLON;
+    CLASS['/'] = CLASS['\\'] = SLASH;
+    CLASS['?'] = QUESTION;
+    CLASS['#'] = HASH;
+    CLASS['\t'] = CLASS['\n'] = CLASS['\f'] = CLASS['\r'] = CLASS[' '] = WHITESPACE;
+
+    // Any state that sees '?' or '#' moves to the query or fragment, unless it's already past
+    // them; everything not listed leaves the state unchanged.
+    transitions(START, PATH);
+    on(START, ALPHA, SCHEME);
+    on(START, SLASH, LEADING_SLASH);
+
+    transitions(SCHEME, PATH);
+    on(SCHEME, ALPHA, SCHEME);
+    on(SCHEME, SCHEME_CHAR, SCHEME);
+    on(SCHEME, COLON, SLASHES);
+
+    transitions(LEADING_SLASH, PATH);
+    on(LEADING_SLASH, SLASH, SLASHES);
+
+    transitions(SLASHES, AUTHORITY);
+    on(SLASHES, SLASH, SLASHES);
+
+    transitions(AUTHORITY, AUTHORITY);
+    on(AUTHORITY, SLASH, PATH);
+
+    transitions(PATH, PATH);
+
+    transitions(QUERY, QUERY);
+    on(QUERY, QUESTION, QUERY);
+
+    transitions(FRAGMENT, FRAGMENT);
+    on(FRAGMENT, QUESTION, FRAGMENT);
+    on(FRAGMENT, HASH, FRAGMENT);
+
+    for (int state = 0; state < STATES; state++) {
+      for (int c = 0; c < 0x80; c++) {
+        NEXT[state << 7 | c] = BY_CLASS[state * CLASSES + CLASS[c]];
+      }
+    }
+    System.arraycopy(NEXT, 0, NEXT_SANITIZING, 0, NEXT.length);
+    for (int state = 0; state < STATES; state++) {
+      NEXT_SANITIZING[state << 7 | '\n'] = BREAK;
+      NEXT_SANITIZING[state << 7 | '\r'] = BREAK;
+    }
+  }
+
+  /** Sends every class to {@code otherwise}, except '?' and '#'. */
+  private static void transitions(int state, int otherwise) {
+    for (int cls = 0; cls < CLASSES; cls++) {
+      BY_CLASS[state * CLASSES + cls] = (byte) otherwise;
+    }
+    on(state, QUESTION, QUERY);
+    on(state, HASH, FRAGMENT);
+  }
+
+  private static void on(int state, int cls, int next) {
+    BY_CLASS[state * CLASSES + cls] = (byte) next;
+  }
+
+  /**
+   * Splits {@code url} like {@link SplitIndex#splitWithLoops}, returning
+   * {@link SplitIndex#LINE_BREAK} in the same cases if {@code sanitizing}.
+   */
+  @Nullable static SplitIndex split(CharSequence url, @Nullable ParseFailure failure,
+      boolean sanitizing, @Nullable SplitIndex into) {
+    byte[] table = sanitizing ? NEXT_SANITIZING : NEXT;
+    int begin = 0;
+    int end = url.length();
+    while (begin < end && isWhitespace(url.charAt(begin))) {
+      begin++;
+    }
+    while (begin < end && isWhitespace(url.charAt(end - 1))) {
+      end--;
+    }
+
+    if (begin == end) {
+      return SplitIndex.create(
+          into, url, Type.PATH_RELATIVE, -1, -1, -1, -1, begin, begin, -1, -1, -1, -1);
+    }
+
+    Type urlType = Type.PATH_RELATIVE;
+    int schemeEnd = -1;
+    int authorityStart = -1;
+    int authorityEnd = -1;
+    int pathStart = -1;
+    int pathEnd = -1;
+    int queryStart = -1;
+    int queryEnd = -1;
+    int fragmentStart = -1;
+    int fragmentEnd = -1;
+
+    // Most chars leave the state unchanged, so the inner loop runs through them using only the
+    // current state's row. Once in the fragment, nothing else can change, so the loop stops.
+    int state = START;
+    int i = begin;
+    Utf8View bytes = !sanitizing && url instanceof Utf8View ? (Utf8View) url : null;
+    for (; i < end && state != FRAGMENT; i++) {
+      if (bytes != null) {
+        i = skip(bytes, state, i, end);
+      }
+      int row = state << 7;
+      int next = state;
+      for (; i < end; i++) {
+        char c = url.charAt(i);
+        // DEL is OTHER, like every non-ASCII char, so clamping to it avoids a branch.
+        next = table[row | Math.min(c, 0x7F)];
+        if (next != state) {
+          break;
+        }
+      }
+      if (next == state) {
+        break;
+      }
+
+      switch (next) {
+        case BREAK:
+          return SplitIndex.LINE_BREAK;
+        case LEADING_SLASH:
+          urlType = Type.PATH_ABSOLUTE;
+          break;
+        case SLASHES:
+          if (state == SCHEME) {
+            urlType = Type.FULL;
+            schemeEnd = i;
+          } else {
+            urlType = Type.PROTOCOL_RELATIVE;
+          }
+          break;
+        case AUTHORITY:
+          authorityStart = i;
+          break;
+        case PATH:
+          if (state == AUTHORITY) {
+            authorityEnd = i;
+            pathStart = i;
+          } else {
+            pathStart = begin;
+          }
+          break;
+        case QUERY:
+        case FRAGMENT:
+          if (state == SLASHES) {
+            authorityStart = authorityEnd = i;
+          } else if (state == AUTHORITY) {
+            authorityEnd = i;
+          } else if (state == SCHEME || state == LEADING_SLASH) {
+            pathStart = begin;
+            pathEnd = i;
+          } else if (state == PATH) {
+            pathEnd = i;
+          } else if (state == QUERY) {
+            queryEnd = i;
+          } else if (state == START && next == FRAGMENT) {
+            urlType = Type.FRAGMENT;
+          }
+          if (next == QUERY) {
+            queryStart = i + 1;
+          } else {
+            fragmentStart = i + 1;
+            fragmentEnd = end;
+          }
+          break;
+        default:
+      }
+      state = next;
+    }
+
+    if (state == FRAGMENT && sanitizing) {
+      for (; i < end; i++) {
+        char c = url.charAt(i);
+        if (c == '\n' || c == '\r') {
+          return SplitIndex.LINE_BREAK;
+        }
+      }
+    }
+
+    switch (state) {
+      case SCHEME:
+      case LEADING_SLASH:
+        pathStart = begin;
+        pathEnd = end;
+        break;
+      case SLASHES:
+        if (urlType == Type.PROTOCOL_RELATIVE && end - begin == 2) {
+          return SplitIndex.create(into,
+              url, Type.PROTOCOL_RELATIVE, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1);
+        }
+        if (failure != null) {
+          failure.reject(Rejection.MISSING_HOST, end);
+          return null;
+        }
+        throw new InvalidUrlException(Rejection.MISSING_HOST,
+            "URL missing host name: " + url.subSequence(begin, end));
+      case AUTHORITY:
+        authorityEnd = end;
+        break;
+      case PATH:
+        pathEnd = end;
+        break;
+      case QUERY:
+        queryEnd = end;
+        break;
+      default:
+    }
+
+    if (pathEnd == pathStart) {
+      pathStart = pathEnd = -1;
+    }
+
+    return SplitIndex.create(into, url, urlType, schemeEnd == -1 ? -1 : begin, schemeEnd,
+        authorityStart, authorityEnd, pathStart, pathEnd, queryStart, queryEnd,
+        fragmentStart, fragmentEnd);
+  }
+
+  /**
+   * Skips ahead to the next char that can end a long-lived state, checking eight bytes at a time.
+   * Every other state either changes after a char or two or, for the fragment, stops the scan.
+   */
+  private static int skip(Utf8View bytes, int state, int i, int end) {
+    switch (state) {
+      case AUTHORITY:
+        return bytes.indexOfAny(i, end, '/', '\\', '?', '#');
+      case PATH:
+        return bytes.indexOfAny(i, end, '?', '#', '#', '#');
+      case QUERY:
+        return bytes.indexOfAny(i, end, '#', '#', '#', '#');
+      default:
+        return i;
+    }
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c < 0x80 && CLASS[c] == WHITESPACE;
+  }
+}
@@ -0,0 +1,258 @@
+package org.urllib.internal;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+
+/**
+ * UTF-8 bytes viewed as a {@link CharSequence} with one char per byte, so that the scanners in
+ * this package can split and validate a URL without decoding it. Every delimiter is ASCII, and
+ * the bytes of a multi-byte character appear as chars in {@code [0x80, 0xFF]}, which never match
+ * one.
+ *
+ * <p>{@link #toString} decodes the bytes, so its length can differ from {@link #length}.
+ */
+public final class Utf8View implements CharSequence {
+
+  // Eight copies of 0x01 and of 0x80, for scanning a long's bytes at once.
+  private static final long LOW_BITS = 0x0101010101010101L;
+  private static final long HIGH_BITS = 0x8080808080808080L;
+
+  private final byte[] bytes;
+  // A little-endian view of bytes, shared with sub-sequences, for reading eight bytes at once.
+  private final ByteBuffer words;
+  private final int offset;
+  private final int length;
+
+  private Utf8View(byte[] bytes) {
+    this(bytes, ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN), 0, bytes.length);
+  }
+
+  private Utf8View(byte[] bytes, ByteBuffer words, int offset, int length) {
+    this.bytes = bytes;
+    this.words = words;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /**
+   * Copies {@code bytes[offset, offset + length)}, applying the same whitespace rules as
+   * {@link Strings#sanitizeWhitespace}. The copy means callers may reuse their buffer.
+   *
+   * <p>Malformed UTF-8 is replaced by U+FFFD before newlines are removed, as
+   * {@code new String(bytes, offset, length, UTF_8)} would, so that bytes on either side of a
+   * newline are never joined into a character that the decoded string doesn't contain.
+   */
+  @Nonnull public static Utf8View sanitize(@Nonnull byte[] bytes, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > bytes.length - length) {
+      throw new IndexOutOfBoundsException(
+          "offset " + offset + ", length " + length + ", array length " + bytes.length);
+    }
+
+    int start = offset;
+    int end = offset + length;
+    while (start < end && isWhitespace(bytes[start])) {
+      start++;
+    }
+    while (end > start && isWhitespace(bytes[end - 1])) {
+      end--;
+    }
+    return wellFormed(Arrays.copyOfRange(bytes, start, end)).removeNewlines();
+  }
+
+  /**
+   * Like {@link #sanitize(byte[], int, int)}, reading the bytes between the buffer's position
+   * and limit. The buffer's position is not changed.
+   */
+  @Nonnull public static Utf8View sanitize(@Nonnull ByteBuffer buffer) {
+    if (buffer.hasArray()) {
+      return sanitize(buffer.array(), buffer.arrayOffset() + buffer.position(),
+          buffer.remaining());
+    }
+
+    int start = buffer.position();
+    int end = buffer.limit();
+    while (start < end && isWhitespace(buffer.get(start))) {
+      start++;
+    }
+    while (end > start && isWhitespace(buffer.get(end - 1))) {
+      end--;
+    }
+    byte[] copy = new byte[end - start];
+    // Cast so that Java 9's covariant overrides aren't linked against.
+    ByteBuffer range = buffer.duplicate();
+    ((Buffer) range).limit(end);
+    ((Buffer) range).position(start);
+    range.get(copy);
+    return wellFormed(copy).removeNewlines();
+  }
+
+  /**
+   * Views {@code bytes} if it's well-formed UTF-8, or else the bytes re-encoded after decoding,
+   * in which each malformed sequence has become U+FFFD.
+   */
+  private static Utf8View wellFormed(byte[] bytes) {
+    Utf8View view = new Utf8View(bytes);
+    return view.isWellFormed()
+        ? view
+        : new Utf8View(new String(bytes, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Checks the bytes against the well-formed byte sequences of Unicode's table 3-7, which is
+   * what the JDK's decoder accepts: no overlong forms, surrogates or code points above U+10FFFF.
+   * Runs of ASCII are skipped eight bytes at a time.
+   */
+  boolean isWellFormed() {
+    int i = indexOfNonAscii(0, length);
+    while (i < length) {
+      int b = charAt(i);
+      if (b < 0x80) {
+        i = indexOfNonAscii(i + 1, length);
+        continue;
+      }
+
+      int continuations;
+      int min = 0x80;
+      int max = 0xBF;
+      if (b >= 0xC2 && b <= 0xDF) {
+        continuations = 1;
+      } else if (b >= 0xE0 && b <= 0xEF) {
+        continuations = 2;
+        if (b == 0xE0) min = 0xA0;
+        if (b == 0xED) max = 0x9F;
+      } else if (b >= 0xF0 && b <= 0xF4) {
+        continuations = 3;
+        if (b == 0xF0) min = 0x90;
+        if (b == 0xF4) max = 0x8F;
+      } else {
+        return false;
+      }
+      if (length - i <= continuations) {
+        return false;
+      }
+      int second = charAt(i + 1);
+      if (second < min || second > max) {
+        return false;
+      }
+      for (int k = 2; k <= continuations; k++) {
+        if ((charAt(i + k) & 0xC0) != 0x80) {
+          return false;
+        }
+      }
+      i += continuations + 1;
+    }
+    return true;
+  }
+
+  /**
+   * Removes each newline and the whitespace after it, in place, from a view of a whole array.
+   */
+  private Utf8View removeNewlines() {
+    int p = 0;
+    for (int i = 0; i < length; i++) {
+      if (bytes[i] == '\n' || bytes[i] == '\r') {
+        i++;
+        while (i < length && isWhitespace(bytes[i])) {
+          i++;
+        }
+      }
+      bytes[p++] = bytes[i];
+    }
+    return new Utf8View(bytes, words, 0, p);
+  }
+
+  @Override public int length() {
+    return length;
+  }
+
+  @Override public char charAt(int index) {
+    return (char) (bytes[offset + index] & 0xFF);
+  }
+
+  @Override public CharSequence subSequence(int start, int end) {
+    return new Utf8View(bytes, words, offset + start, end - start);
+  }
+
+  @Override public String toString() {
+    return new String(bytes, offset, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns a copy of the bytes in {@code [start, end)}.
+   */
+  byte[] copyBytes(int start, int end) {
+    byte[] copy = new byte[end - start];
+    System.arraycopy(bytes, offset + start, copy, 0, copy.length);
+    return copy;
+  }
+
+  /**
+   * Returns the index of the first char in {@code [from, to)} that is {@code a}, {@code b},
+   * {@code c} or {@code d}, or {@code to} if there's none. Repeat a char to look for fewer than
+   * four. All four must be ASCII.
+   *
+   * <p>The bytes are read eight at a time into a little-endian {@code long}, which the JIT
+   * compiles to a single load. A byte equal to {@code a} becomes zero after XOR with eight
+   * copies of {@code a}, and {@code (x - 0x01..01) & ~x & 0x80..80} sets the high bit of the
+   * lowest zero byte in {@code x}. Long runs without a delimiter are skipped without looking at
+   * each byte.
+   */
+  int indexOfAny(int from, int to, char a, char b, char c, char d) {
+    long pa = a * LOW_BITS;
+    long pb = b * LOW_BITS;
+    long pc = c * LOW_BITS;
+    long pd = d * LOW_BITS;
+    int i = offset + from;
+    int limit = offset + to;
+    for (; i <= limit - 8; i += 8) {
+      long word = words.getLong(i);
+      long found = zeroBytes(word ^ pa) | zeroBytes(word ^ pb) | zeroBytes(word ^ pc)
+          | zeroBytes(word ^ pd);
+      if (found != 0) {
+        return i - offset + (Long.numberOfTrailingZeros(found) >>> 3);
+      }
+    }
+    for (; i < limit; i++) {
+      byte x = bytes[i];
+      if (x == a || x == b || x == c || x == d) {
+        break;
+      }
+    }
+    return i - offset;
+  }
+
+  /**
+   * Returns the index of the first byte in {@code [from, to)} that isn't ASCII, or {@code to} if
+   * there's none. Like {@link #indexOfAny}, eight bytes are tested at once: a long without a high
+   * bit set is all ASCII.
+   */
+  int indexOfNonAscii(int from, int to) {
+    int i = offset + from;
+    int limit = offset + to;
+    for (; i <= limit - 8; i += 8) {
+      long high = words.getLong(i) & HIGH_BITS;
+      if (high != 0) {
+        return i - offset + (Long.numberOfTrailingZeros(high) >>> 3);
+      }
+    }
+    while (i < limit && bytes[i] >= 0) {
+      i++;
+    }
+    return i - offset;
+  }
+
+  /**
+   * Sets the high bit of each byte that is zero in {@code x}. Bits above the lowest zero byte
+   * may also be set, so only the lowest is meaningful.
+   */
+  private static long zeroBytes(long x) {
+    return (x - LOW_BITS) & ~x & HIGH_BITS;
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\t' || b == '\n' || b == '\f' || b == '\r';
+  }
+}
@@ -1,7 +1,14 @@
 package org.urllib.internal.authority;
 
 import com.google.auto.value.AutoValue;
+import javax.annotation.Nullable;
 import org.urllib.Host;
+import org.urllib.ParseListener.Stage;
+import org.urllib.Rejection;
+import org.urllib.internal.Interning;
+import org.urllib.internal.InvalidUrlException;
+import org.urllib.internal.ParseFailure;
+import org.urllib.internal.Probe;
 
 @AutoValue
 public abstract class Authority {
@@ -10,18 +17,38 @@ public abstract class Authority {
   public abstract Host host();
 
   public static Authority split(String authority) {
+    return split(authority, null);
+  }
+
+  public static Authority split(String authority, @Nullable Probe probe) {
+    return split(authority, 0, authority.length(), probe);
+  }
+
+  /**
+   * Splits {@code url[start, end)} without first copying it to a substring.
+   */
+  public static Authority split(CharSequence url, int start, int end, @Nullable Probe probe) {
+    return split(url, start, end, probe, null);
+  }
+
+  /**
+   * Like {@link #split(CharSequence, int, int, Probe)}, but if {@code failure} isn't null, an
+   * invalid authority is reported to it and {@code null} returned.
+   */
+  @Nullable public static Authority split(CharSequence url, int start, int end,
+      @Nullable Probe probe, @Nullable ParseFailure failure) {
+    int first = start;
     int lastColon = -1;
     int numColons = 0;
 
-    int start = authority.length();
-    int end = authority.length();
+    start = end;
     int port = -1;
 
     // Move p to the last @, or -1 if not found
     // Find the last colon
     // Count the number of colons found
-    while (--start >= 0) {
-      char b = authority.charAt(start);
+    while (--start >= first) {
+      char b = url.charAt(start);
       if (b == '@') {
         break;
       } else if (b == ':') {
@@ -35,20 +62,88 @@ public abstract class Authority {
     start++;
 
     if (start == end || start == lastColon) {
-      throw new IllegalArgumentException("URL missing host. Input: " + authority);
+      if (failure != null) {
+        failure.reject(Rejection.MISSING_HOST, start);
+        return null;
+      }
+      throw new InvalidUrlException(Rejection.MISSING_HOST,
+          "URL missing host. Input: " + url.subSequence(first, end));
     }
 
-    if (numColons == 1) {
-      port = parseAndValidatePort(authority, lastColon);
+    if (numColons == 1 || (numColons > 1 && url.charAt(lastColon - 1) == ']')) {
+      if (lastColon < end - 1) {
+        if (failure == null) {
+          port = Port.validateOrThrow(url, lastColon + 1, end);
+        } else if ((port = parsePort(url, lastColon + 1, end)) == -1) {
+          failure.reject(Rejection.BAD_PORT, lastColon + 1);
+          return null;
+        }
+      }
       end = lastColon;
-    } else if (numColons > 1) {
-      if (authority.charAt(lastColon - 1) == ']') {
-        port = parseAndValidatePort(authority, lastColon);
-        end = lastColon;
+    }
+
+    String hostname = url.subSequence(start, end).toString();
+    if (probe != null) {
+      probe.mark(Stage.AUTHORITY);
+    }
+    Host host = Hosts.parse(hostname, start, failure);
+    if (host == null) {
+      return null;
+    }
+    host = Interning.host(host);
+    if (probe != null) {
+      probe.hostParsed(hostname, host);
+    }
+    return new AutoValue_Authority(port, host);
+  }
+
+  /**
+   * Returns whether {@link #split} would accept {@code url[start, end)}, without allocating
+   * unless the hostname needs IDN conversion.
+   */
+  public static boolean isValid(CharSequence url, int start, int end) {
+    return isValid(url, start, end, null);
+  }
+
+  /**
+   * Like {@link #isValid(CharSequence, int, int)}, and if {@code bounds} isn't null and the
+   * authority is valid, stores the start and end of the hostname in its first two elements and
+   * the port, or -1 if there's none, in the third.
+   */
+  public static boolean isValid(CharSequence url, int start, int end, @Nullable int[] bounds) {
+    int first = start;
+    int lastColon = -1;
+    int numColons = 0;
+    start = end;
+    while (--start >= first) {
+      char b = url.charAt(start);
+      if (b == '@') {
+        break;
+      } else if (b == ':' && numColons++ == 0) {
+        lastColon = start;
       }
     }
+    start++;
 
-    return new AutoValue_Authority(port, Hosts.parse(authority.substring(start, end)));
+    if (start == end || start == lastColon) {
+      return false;
+    }
+    int port = -1;
+    if (numColons == 1 || (numColons > 1 && url.charAt(lastColon - 1) == ']')) {
+      if (lastColon < end - 1 && (port = Port.parse(url, lastColon + 1, end)) == -1) {
+        return false;
+      }
+      end = lastColon;
+    }
+    if (!Hosts.isValid(url, start, end)) {
+      return false;
+    }
+    if (bounds != null) {
+      bounds[0] = start;
+      bounds[1] = end;
+      bounds[2] = port;
+    }
+    return true;
   }
 
   @Override public String toString() {
@@ -59,9 +154,13 @@ public abstract class Authority {
     }
   }
 
-  private static int parseAndValidatePort(String authority, int lastColon) {
-    return lastColon == authority.length() - 1
-        ? -1
-        : Port.validateOrThrow(authority.substring(lastColon + 1));
+  private static int parsePort(CharSequence url, int start, int end) {
+    int port = Port.parse(url, start, end);
+    if (port == -1) {
+      // Non-ASCII digits arrive as bytes from a Utf8View, so decode before giving up.
+      String decoded = url.subSequence(start, end).toString();
+      port = Port.parse(decoded, 0, decoded.length());
+    }
+    return port;
   }
 }
@@ -13,19 +13,53 @@ abstract class Dns implements Host {
       CodepointMatcher.ALPHANUMERIC, CodepointMatcher.anyOf("-."));
 
   static Dns parse(String hostname) {
-    int lastDot = -1;
-    for (int i = 0; i < hostname.length(); i++) {
+    int invalid = invalidIndex(hostname);
+    if (invalid != -1) {
+      throw new InvalidHostException(hostname, invalid);
+    }
+    return create(hostname);
+  }
+
+  static Dns create(String hostname) {
+    return new AutoValue_Dns(hostname.toLowerCase(Locale.US));
+  }
+
+  /**
+   * Returns the index of the first character that makes {@code hostname} an invalid DNS name,
+   * or -1 if it's valid.
+   */
+  static int invalidIndex(CharSequence hostname) {
+    return invalidIndex(hostname, 0, hostname.length());
+  }
+
+  /**
+   * Like {@link #invalidIndex(CharSequence)} for {@code hostname[start, end)}, returning an index
+   * relative to {@code start}.
+   */
+  static int invalidIndex(CharSequence hostname, int start, int end) {
+    int lastDot = start - 1;
+    for (int i = start; i < end; i++) {
       char c = hostname.charAt(i);
       if (!DNS.matches(c)) {
-        throw new InvalidHostException(hostname, i);
+        return i - start;
       } else if (c == '.') {
         if (lastDot == i - 1) {
-          throw new InvalidHostException(hostname, i);
+          return i - start;
         }
         lastDot = i;
       }
     }
-    String lower = hostname.toLowerCase(Locale.US);
-    return new AutoValue_Dns(lower, IDN.toUnicode(lower));
+    return -1;
+  }
+
+  // Racy single-check: IDN.toUnicode is deterministic and String is immutable.
+  private String display;
+
+  @Override public String display() {
+    String result = display;
+    if (result == null) {
+      display = result = IDN.toUnicode(name());
+    }
+    return result;
   }
 }
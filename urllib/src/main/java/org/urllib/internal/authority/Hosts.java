@@ -2,48 +2,204 @@ package org.urllib.internal.authority;
 
 import java.net.IDN;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.urllib.Host;
+import org.urllib.Rejection;
+import org.urllib.internal.InvalidUrlException;
+import org.urllib.internal.ParseFailure;
 import org.urllib.internal.PercentDecoder;
 
-final class Hosts {
+public final class Hosts {
+
+  // Results of checkAsciiLabels.
+  private static final int ASCII_LABELS_VALID = 0;
+  private static final int ASCII_LABELS_INVALID = 1;
+  private static final int NOT_ASCII = 2;
+
+  private Hosts() {}
+
+  /**
+   * Returns {@code "DNS"}, {@code "IDN"}, {@code "IPv4"} or {@code "IPv6"}.
+   */
+  @Nonnull public static String type(@Nonnull Host host) {
+    if (host instanceof Ip4) {
+      return "IPv4";
+    } else if (host instanceof Ip6) {
+      return "IPv6";
+    }
+    return dnsType(host.name());
+  }
+
+  /**
+   * Returns {@code "IDN"} if the ASCII DNS name has a label starting with {@code xn--}, or
+   * {@code "DNS"}.
+   */
+  @Nonnull public static String dnsType(@Nonnull CharSequence name) {
+    int n = name.length();
+    for (int i = 0; i + 4 <= n; i++) {
+      if ((i == 0 || name.charAt(i - 1) == '.') && name.charAt(i) == 'x'
+          && name.charAt(i + 1) == 'n' && name.charAt(i + 2) == '-' && name.charAt(i + 3) == '-') {
+        return "IDN";
+      }
+    }
+    return "DNS";
+  }
 
   @Nonnull static Host parse(String hostname) {
-    String ascii = validateAndConvertToAscii(hostname);
+    return parse(hostname, 0, null);
+  }
+
+  /**
+   * Parses a hostname that starts at {@code offset} in the input. If {@code failure} isn't
+   * null, an invalid hostname is reported to it and {@code null} returned.
+   */
+  @Nullable static Host parse(String hostname, int offset, @Nullable ParseFailure failure) {
+    String ascii = validateAndConvertToAscii(hostname, offset, failure);
+    if (ascii == null) {
+      return null;
+    }
 
     Host host;
+    Rejection reason;
     if (Ip6.isIpv6(ascii)) {
       host = Ip6.parse(ascii);
+      reason = Rejection.INVALID_IPV6;
     } else {
       if (ascii.endsWith(".")) {
         ascii = ascii.substring(0, ascii.length() - 1);
       }
       if (Ip4.isIpv4(ascii)) {
         host = Ip4.parse(ascii);
+        reason = Rejection.INVALID_IPV4;
       } else {
-        host = Dns.parse(ascii);
+        int invalid = Dns.invalidIndex(ascii);
+        if (invalid == -1) {
+          return Dns.create(ascii);
+        } else if (failure != null) {
+          // Point at the bad character if decoding didn't move it.
+          failure.reject(Rejection.INVALID_DNS,
+              hostname.startsWith(ascii) ? offset + invalid : offset);
+          return null;
+        }
+        throw new InvalidHostException(ascii, invalid);
       }
     }
 
     if (host == null) {
-      throw new IllegalArgumentException("Invalid hostname: " + hostname);
+      if (failure != null) {
+        failure.reject(reason, offset);
+        return null;
+      }
+      throw new InvalidUrlException(reason, "Invalid hostname: " + hostname);
     }
 
     return host;
   }
 
-  private static String validateAndConvertToAscii(String hostname) {
+  @Nullable private static String validateAndConvertToAscii(String hostname, int offset,
+      @Nullable ParseFailure failure) {
+    String decoded = PercentDecoder.decodeUnreserved(hostname);
     String ascii;
-    try {
-      ascii = IDN.toASCII(PercentDecoder.decodeUnreserved(hostname), IDN.ALLOW_UNASSIGNED);
-    } catch (IllegalArgumentException e) {
-      throw new IllegalArgumentException("Invalid hostname: " + hostname);
+    int labels = checkAsciiLabels(decoded, 0, decoded.length());
+    if (labels == ASCII_LABELS_VALID) {
+      // IDN.toASCII returns ASCII input unchanged, once its labels pass the length check.
+      ascii = decoded;
+    } else if (labels == ASCII_LABELS_INVALID) {
+      return rejectIdn(hostname, offset, failure);
+    } else {
+      try {
+        ascii = IDN.toASCII(decoded, IDN.ALLOW_UNASSIGNED);
+      } catch (IllegalArgumentException e) {
+        return rejectIdn(hostname, offset, failure);
+      }
     }
 
     if (ascii.isEmpty() || ".".equals(ascii)) {
-      throw new IllegalArgumentException("Invalid hostname: cannot be null or empty.");
+      if (failure != null) {
+        failure.reject(Rejection.MISSING_HOST, offset);
+        return null;
+      }
+      throw new InvalidUrlException(Rejection.MISSING_HOST,
+          "Invalid hostname: cannot be null or empty.");
     }
 
     return ascii;
   }
 
+  @Nullable private static String rejectIdn(String hostname, int offset,
+      @Nullable ParseFailure failure) {
+    if (failure != null) {
+      failure.reject(Rejection.INVALID_IDN, offset);
+      return null;
+    }
+    throw new InvalidUrlException(Rejection.INVALID_IDN, "Invalid hostname: " + hostname);
+  }
+
+  /**
+   * Returns whether {@link #parse} would accept {@code url[start, end)}. Hostnames that are
+   * ASCII and have no percent-escapes are checked in place without allocating.
+   */
+  static boolean isValid(CharSequence url, int start, int end) {
+    int labels = checkAsciiLabels(url, start, end);
+    if (labels == NOT_ASCII) {
+      return parse(url.subSequence(start, end).toString(), start, new ParseFailure()) != null;
+    } else if (labels == ASCII_LABELS_INVALID) {
+      return false;
+    }
+
+    if (start == end || (end - start == 1 && url.charAt(start) == '.')) {
+      return false;
+    } else if (Ip6.isIpv6(url, start, end)) {
+      return Ip6.isValid(url, start, end);
+    }
+    if (url.charAt(end - 1) == '.') {
+      end--;
+    }
+    return Ip4.isIpv4(url, start, end)
+        ? Ip4.isValid(url, start, end)
+        : Dns.invalidIndex(url, start, end) == -1;
+  }
+
+  /**
+   * Returns whether the valid hostname {@code url[start, end)} is an ASCII DNS name without
+   * percent-escapes. The {@link Host#name} of such a host is its chars in lower case, less any
+   * trailing dot.
+   */
+  public static boolean isAsciiDns(CharSequence url, int start, int end) {
+    if (checkAsciiLabels(url, start, end) != ASCII_LABELS_VALID || Ip6.isIpv6(url, start, end)) {
+      return false;
+    }
+    if (url.charAt(end - 1) == '.') {
+      end--;
+    }
+    return !Ip4.isIpv4(url, start, end);
+  }
+
+  /**
+   * Applies the label length check of RFC 3490's ToASCII to an ASCII hostname, which is all
+   * that ToASCII does to one: each label must have 1 to 63 characters, though the root
+   * {@code "."} and a single trailing dot are allowed. A percent-escape counts as non-ASCII,
+   * since it may decode to anything.
+   */
+  private static int checkAsciiLabels(CharSequence hostname, int start, int end) {
+    if (end - start == 1 && hostname.charAt(start) == '.') {
+      return ASCII_LABELS_VALID;
+    }
+    int labelStart = start;
+    boolean valid = true;
+    for (int i = start; i < end; i++) {
+      char c = hostname.charAt(i);
+      if (c >= 0x80 || c == '%') {
+        return NOT_ASCII;
+      } else if (c == '.') {
+        int label = i - labelStart;
+        valid &= label > 0 && label <= 63;
+        labelStart = i + 1;
+      }
+    }
+    if (labelStart < end) {
+      valid &= end - labelStart <= 63;
+    }
+    return valid ? ASCII_LABELS_VALID : ASCII_LABELS_INVALID;
+  }
 }
@@ -1,8 +1,14 @@
 package org.urllib.internal.authority;
 
-class InvalidHostException extends IllegalArgumentException {
+import org.urllib.Rejection;
+import org.urllib.internal.InvalidUrlException;
+
+class InvalidHostException extends InvalidUrlException {
+
+  private static final long serialVersionUID = 1L;
 
   InvalidHostException(String hostname, int i) {
-    super(String.format("Invalid hostname: Illegal character at %d in %s.", i, hostname));
+    super(Rejection.INVALID_DNS,
+        String.format("Invalid hostname: Illegal character at %d in %s.", i, hostname));
   }
 }
@@ -9,30 +9,69 @@ import org.urllib.internal.CodepointMatcher;
 abstract class Ip4 implements Host {
 
   @Nullable static Ip4 parse(String hostname) {
-    String[] segments = hostname.split("\\.");
-    if (segments.length != 4) {
-      return null;
-    }
     byte[] addr = new byte[4];
-    for (int i = 0; i < segments.length; i++) {
-      int val;
-      String segment = segments[i];
+    return parse(hostname, 0, hostname.length(), addr) ? fromAddress(addr) : null;
+  }
+
+  /**
+   * Returns whether {@code hostname[start, end)} is a valid address, without allocating.
+   */
+  static boolean isValid(CharSequence hostname, int start, int end) {
+    return parse(hostname, start, end, null);
+  }
+
+  private static boolean parse(CharSequence hostname, int start, int end, @Nullable byte[] addr) {
+    int segment = 0;
+    for (int segmentStart = start; segmentStart <= end; segment++) {
+      int segmentEnd = segmentStart;
+      while (segmentEnd < end && hostname.charAt(segmentEnd) != '.') {
+        segmentEnd++;
+      }
+      if (segment == 4) {
+        return false;
+      }
       // Don't allow segments that start with zero, since
       // it's unclear whether they're octal.
-      if (segment.length() > 1 && segment.startsWith("0")) {
-        return null;
+      if (segmentEnd - segmentStart > 1 && hostname.charAt(segmentStart) == '0') {
+        return false;
       }
-      try {
-        val = Integer.parseInt(segment);
-      } catch (NumberFormatException e) {
-        return null;
+      int val = parseSegment(hostname, segmentStart, segmentEnd);
+      if (val == -1) {
+        return false;
       }
-      if (val < 0 || val > 255) {
-        return null;
+      if (addr != null) {
+        addr[segment] = (byte) val;
       }
-      addr[i] = (byte) val;
+      segmentStart = segmentEnd + 1;
     }
-    return fromAddress(addr);
+    return segment == 4;
+  }
+
+  /**
+   * Returns {@code Integer.parseInt} of {@code str[start, end)} if it's in {@code [0, 255]}, or
+   * -1 otherwise, without throwing for input that isn't a number.
+   */
+  private static int parseSegment(CharSequence str, int start, int end) {
+    boolean negative = false;
+    if (start < end && (str.charAt(start) == '+' || str.charAt(start) == '-')) {
+      negative = str.charAt(start) == '-';
+      start++;
+    }
+    if (start == end) {
+      return -1;
+    }
+    int val = 0;
+    for (int i = start; i < end; i++) {
+      int digit = Character.digit(str.charAt(i), 10);
+      if (digit == -1) {
+        return -1;
+      }
+      val = val * 10 + digit;
+      if (val > 255) {
+        return -1;
+      }
+    }
+    return negative && val != 0 ? -1 : val;
   }
 
   private static Ip4 fromAddress(byte[] addr) {
@@ -41,12 +80,19 @@ abstract class Ip4 implements Host {
     return new AutoValue_Ip4(formatted, formatted);
   }
 
-  static boolean isIpv4(String hostname) {
-    int dot = hostname.lastIndexOf('.');
-    if (dot == hostname.length() - 1) {
+  static boolean isIpv4(CharSequence hostname) {
+    return isIpv4(hostname, 0, hostname.length());
+  }
+
+  static boolean isIpv4(CharSequence hostname, int start, int end) {
+    int dot = end - 1;
+    while (dot >= start && hostname.charAt(dot) != '.') {
+      dot--;
+    }
+    if (dot == end - 1) {
       return false;
     }
-    // If a dot isn't found, then -1 is returned and we check the first character.
+    // If a dot isn't found, then start - 1 is reached and we check the first character.
     return CodepointMatcher.DIGIT.matches(hostname.charAt(dot + 1));
   }
 }
@@ -1,6 +1,7 @@
 package org.urllib.internal.authority;
 
 import com.google.auto.value.AutoValue;
+import javax.annotation.Nullable;
 import org.urllib.Host;
 
 @AutoValue
@@ -10,14 +11,28 @@ abstract class Ip6 implements Host {
   // the address as 8 shorts.
   private static final int ADDRLEN = 8;
 
-  static Ip6 parse(String ip) {
+  @Nullable static Ip6 parse(String ip) {
+    int[] addr = new int[ADDRLEN];
+    return parse(ip, 0, ip.length(), addr) ? fromAddress(addr) : null;
+  }
+
+  /**
+   * Returns whether {@code ip[start, end)} is a valid address, without allocating.
+   */
+  static boolean isValid(CharSequence ip, int start, int end) {
+    return parse(ip, start, end, null);
+  }
+
+  /**
+   * Parses {@code ip[start, end)} into {@code addr}, if it isn't null, and returns whether the
+   * address is valid.
+   */
+  private static boolean parse(CharSequence ip, int start, int end, @Nullable int[] addr) {
 
     // 1. Trim brackets, if present.
-    int start = 0;
-    int end = ip.length();
-    if (ip.startsWith("[")) {
-      if (!ip.endsWith("]")) {
-        return null;
+    if (start < end && ip.charAt(start) == '[') {
+      if (ip.charAt(end - 1) != ']') {
+        return false;
       }
       start++;
       end--;
@@ -28,15 +43,12 @@ abstract class Ip6 implements Host {
     switch (end - start) {
       case 0:
       case 1:
-        return null;
+        return false;
       case 2:
-        return "::".equals(ip.substring(start, end))
-            ? fromAddress(new int[8])
-            : null;
+        return ip.charAt(start) == ':' && ip.charAt(start + 1) == ':';
       default:
     }
 
-    int[] addr = new int[ADDRLEN];
     int addrPointer = 0;
     int compressionStarts = -1;
 
@@ -46,10 +58,10 @@ abstract class Ip6 implements Host {
     // at the front.
     if (ip.charAt(start) == ':') {
       if (ip.charAt(start + 1) != ':') {
-        return null;
+        return false;
       }
       if (ip.charAt(start + 2) == ':') {
-        return null;
+        return false;
       }
       compressionStarts = 0;
       start += 2;
@@ -60,11 +72,11 @@ abstract class Ip6 implements Host {
     // hex values.
     for (int i = start; i < end; i++) {
       if (addrPointer == ADDRLEN) {
-        return null;
+        return false;
       }
       if (ip.charAt(i) == ':') {
         if (compressionStarts != -1) {
-          return null;
+          return false;
         }
         compressionStarts = addrPointer;
         continue;
@@ -80,11 +92,14 @@ abstract class Ip6 implements Host {
         }
         int hex = toHex(c);
         if (hex == -1) {
-          return null;
+          return false;
         }
         segVal = segVal * 16 | hex;
       }
-      addr[addrPointer++] = segVal;
+      if (addr != null) {
+        addr[addrPointer] = segVal;
+      }
+      addrPointer++;
 
       // 6. Ensure that the ip address
       // doesn't end in a colon.
@@ -93,27 +108,27 @@ abstract class Ip6 implements Host {
       } else if (ip.charAt(i) == ':') {
         // Don't allow trailing colon.
         if (i == end - 1) {
-          return null;
+          return false;
         }
       } else {
-        return null;
+        return false;
       }
     }
 
     // 7. Insert the compressed zeroes.
     if (compressionStarts == -1 && addrPointer < ADDRLEN - 1) {
-      return null;
+      return false;
     } else if (compressionStarts > -1) {
       if (addrPointer == ADDRLEN) {
-        return null;
+        return false;
       }
-      for (int i = 1; i <= addrPointer - compressionStarts; i++) {
+      for (int i = 1; addr != null && i <= addrPointer - compressionStarts; i++) {
         addr[ADDRLEN - i] = addr[addrPointer - i];
         addr[addrPointer - i] = 0;
       }
     }
 
-    return fromAddress(addr);
+    return true;
   }
 
   private static Ip6 fromAddress(int[] addr) {
@@ -172,8 +187,12 @@ abstract class Ip6 implements Host {
     return hex;
   }
 
-  static boolean isIpv6(String hostname) {
-    for (int i = 0; i < hostname.length(); i++) {
+  static boolean isIpv6(CharSequence hostname) {
+    return isIpv6(hostname, 0, hostname.length());
+  }
+
+  static boolean isIpv6(CharSequence hostname, int start, int end) {
+    for (int i = start; i < end; i++) {
       switch (hostname.charAt(i)) {
         case '[':
         case ':':
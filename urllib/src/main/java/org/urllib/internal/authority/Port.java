@@ -1,5 +1,8 @@
 package org.urllib.internal.authority;
 
+import org.urllib.Rejection;
+import org.urllib.internal.InvalidUrlException;
+
 public class Port {
 
   private static final int MIN_PORT = 1;
@@ -16,6 +19,39 @@ public class Port {
     return validateOrThrow(port);
   }
 
+  /**
+   * Validates {@code str[start, end)} without first copying it to a substring.
+   */
+  public static int validateOrThrow(CharSequence str, int start, int end) {
+    int port = parse(str, start, end);
+    return port != -1 ? port : validateOrThrow(str.subSequence(start, end).toString());
+  }
+
+  /**
+   * Returns the port in {@code str[start, end)}, or -1 if it isn't a valid port. Accepts the
+   * same input as {@link Integer#parseInt}: an optional {@code +} and any Unicode digits.
+   */
+  public static int parse(CharSequence str, int start, int end) {
+    if (start < end && str.charAt(start) == '+') {
+      start++;
+    }
+    if (start == end) {
+      return -1;
+    }
+    int port = 0;
+    for (int i = start; i < end; i++) {
+      int digit = Character.digit(str.charAt(i), 10);
+      if (digit == -1) {
+        return -1;
+      }
+      port = port * 10 + digit;
+      if (port > MAX_PORT) {
+        return -1;
+      }
+    }
+    return port >= MIN_PORT ? port : -1;
+  }
+
   public static int validateOrThrow(int port) {
     if (port >= Port.MIN_PORT && port <= Port.MAX_PORT) {
       return port;
@@ -24,8 +60,8 @@ public class Port {
     throw portException(String.valueOf(port));
   }
 
-  private static IllegalArgumentException portException(String portString) {
-    return new IllegalArgumentException(
+  private static InvalidUrlException portException(String portString) {
+    return new InvalidUrlException(Rejection.BAD_PORT,
         String.format("Invalid port in authority. Valid values are [%d-%d] inclusive. Found: %s",
             MIN_PORT, MAX_PORT, portString));
   }
@@ -0,0 +1,33 @@
+package org.urllib.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Emitted by {@link Probe} for the host of a URL given to {@code Urls.parse}, {@code Urls.escape}
+ * or {@code Url.resolve}. Hosts parsed without a probe, such as by {@code UrlBuilder},
+ * {@code Urls.http}, {@code UrlParser} or {@code MutableUrl.toImmutable}, are not recorded.
+ */
+@Name("org.urllib.HostParse")
+@Label("Host Parse")
+@Category("urllib")
+@Description("Validation and IDN conversion of the host of a URL being parsed, escaped or"
+    + " resolved, if it exceeded the threshold")
+@Threshold("500 us")
+@StackTrace(false)
+class HostParseEvent extends jdk.jfr.Event {
+
+  @Label("Host Length")
+  int hostLength;
+
+  @Label("Host Type")
+  @Description("DNS, IDN, IPv4 or IPv6; absent if the host was invalid")
+  String hostType;
+
+  @Label("Success")
+  boolean success;
+}
@@ -0,0 +1,116 @@
+package org.urllib.internal;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.urllib.Host;
+import org.urllib.ParseListener;
+import org.urllib.ParseListener.Operation;
+import org.urllib.ParseListener.Stage;
+import org.urllib.internal.authority.Hosts;
+
+/**
+ * Java 11 version of {@code Probe} that, in addition to reporting to a {@link ParseListener},
+ * emits {@link UrlOperationEvent} and {@link HostParseEvent} while a JDK Flight Recorder
+ * recording has them enabled. Only calls that exceed the events' thresholds are written.
+ */
+public final class Probe {
+
+  // Event#isEnabled only depends on the event's class, so one instance answers for all.
+  private static final UrlOperationEvent OPERATION = new UrlOperationEvent();
+  private static final HostParseEvent HOST = new HostParseEvent();
+
+  @Nullable private final ParseListener listener;
+  private final Operation operation;
+  private final long start;
+  private long last;
+  @Nullable private UrlOperationEvent operationEvent;
+  @Nullable private HostParseEvent hostEvent;
+  @Nullable private String hostType;
+
+  private Probe(@Nullable ParseListener listener, @Nonnull Operation operation,
+      @Nullable UrlOperationEvent operationEvent) {
+    this.listener = listener;
+    this.operation = operation;
+    this.operationEvent = operationEvent;
+    this.start = listener == null ? 0 : System.nanoTime();
+    this.last = start;
+  }
+
+  /**
+   * Returns a probe that has started timing {@code operation}, or {@code null} if nothing
+   * is listening.
+   */
+  @Nullable public static Probe start(@Nullable ParseListener listener,
+      @Nonnull Operation operation) {
+    UrlOperationEvent event = null;
+    if (OPERATION.isEnabled()) {
+      event = new UrlOperationEvent();
+      event.begin();
+    } else if (listener == null) {
+      return null;
+    }
+    return new Probe(listener, operation, event);
+  }
+
+  /**
+   * Reports the time since the previous mark (or since the probe was created) as
+   * {@code stage}.
+   */
+  public void mark(@Nonnull Stage stage) {
+    if (stage == Stage.AUTHORITY && HOST.isEnabled()) {
+      hostEvent = new HostParseEvent();
+      hostEvent.begin();
+    }
+    if (listener != null) {
+      long now = System.nanoTime();
+      listener.onStage(operation, stage, now - last);
+      last = now;
+    }
+  }
+
+  /**
+   * Marks the end of {@link Stage#HOST}. The preceding mark must be {@link Stage#AUTHORITY}.
+   */
+  public void hostParsed(@Nonnull String hostname, @Nonnull Host host) {
+    if (hostEvent != null || operationEvent != null) {
+      hostType = Hosts.type(host);
+    }
+    if (hostEvent != null) {
+      hostEvent.end();
+      if (hostEvent.shouldCommit()) {
+        hostEvent.hostLength = hostname.length();
+        hostEvent.hostType = hostType;
+        hostEvent.success = true;
+        hostEvent.commit();
+      }
+      hostEvent = null;
+    }
+    mark(Stage.HOST);
+  }
+
+  public void complete(int inputLength, boolean success) {
+    if (hostEvent != null) {
+      // Host parsing threw.
+      hostEvent.end();
+      if (hostEvent.shouldCommit()) {
+        hostEvent.success = false;
+        hostEvent.commit();
+      }
+      hostEvent = null;
+    }
+    if (operationEvent != null) {
+      operationEvent.end();
+      if (operationEvent.shouldCommit()) {
+        operationEvent.operation = operation.name();
+        operationEvent.inputLength = inputLength;
+        operationEvent.hostType = hostType;
+        operationEvent.success = success;
+        operationEvent.commit();
+      }
+      operationEvent = null;
+    }
+    if (listener != null) {
+      listener.onComplete(operation, inputLength, success, System.nanoTime() - start);
+    }
+  }
+}
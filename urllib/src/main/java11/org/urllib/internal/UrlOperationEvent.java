@@ -0,0 +1,31 @@
+package org.urllib.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("org.urllib.UrlOperation")
+@Label("URL Operation")
+@Category("urllib")
+@Description("A call to Urls.parse, Urls.escape or Url.resolve that exceeded the threshold")
+@Threshold("1 ms")
+@StackTrace(true)
+class UrlOperationEvent extends jdk.jfr.Event {
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Input Length")
+  @Description("Length of the input in chars, before whitespace is removed")
+  int inputLength;
+
+  @Label("Host Type")
+  @Description("DNS, IDN, IPv4 or IPv6; absent if the host was not reached")
+  String hostType;
+
+  @Label("Success")
+  boolean success;
+}
@@ -0,0 +1,203 @@
+package org.urllib;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Fails when an entry point allocates more bytes per call than its budget. The budgets leave
+ * roughly 30% of headroom over the measured cost; lower them when an optimization lands so
+ * that the gain cannot silently regress.
+ */
+public class AllocationBudgetTest {
+
+  private static final String[] INPUTS = {
+      "http://host.com/",
+      "https://www.example.com/search/results?q=urllib&page=2#top",
+      "http://[2001:db8::1]:8080/a/b/../c/%7Efile.html?k=v&k2",
+      "https://bücher.de/❄/index.html?q=❄",
+  };
+
+  private static final int WARMUP = 20000;
+  private static final int CALLS = 2000;
+
+  private static com.sun.management.ThreadMXBean threads;
+  private static volatile Object sink;
+
+  @BeforeClass public static void assumeAllocationCounters() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  @Test public void parse() {
+    assertBudgets(EntryPoint.PARSE, 900, 1_000, 1_200, 3_600);
+  }
+
+  @Test public void escape() {
+    assertBudgets(EntryPoint.ESCAPE, 1_000, 1_650, 2_200, 4_400);
+  }
+
+  @Test public void createURI() {
+    assertBudgets(EntryPoint.CREATE_URI, 1_350, 2_200, 2_450, 4_800);
+  }
+
+  @Test public void urlToString() {
+    // Memoized after the first call.
+    assertBudgets(EntryPoint.TO_STRING, 0, 0, 0, 0);
+  }
+
+  @Test public void uri() {
+    assertBudgets(EntryPoint.URI, 0, 0, 0, 0);
+  }
+
+  @Test public void resolve() {
+    assertBudgets(EntryPoint.RESOLVE, 1_400, 1_700, 1_650, 1_500);
+  }
+
+  @Test public void isValid() {
+    // Only the IDN hostname needs to allocate.
+    assertBudgets(EntryPoint.IS_VALID, 0, 0, 0, 3_400);
+  }
+
+  @Test public void urlParser() {
+    // The IPv6 and IDN hostnames are converted as by Urls.parse.
+    assertBudgets(EntryPoint.URL_PARSER, 0, 0, 700, 3_400);
+  }
+
+  @Test public void urlParserReadingComponents() {
+    assertBudgets(EntryPoint.URL_PARSER_READ, 0, 0, 700, 3_400);
+  }
+
+  @Test public void visit() {
+    assertBudgets(EntryPoint.VISIT, 0, 0, 700, 3_400);
+  }
+
+  private static void assertBudgets(EntryPoint entryPoint, long... budgets) {
+    for (int i = 0; i < INPUTS.length; i++) {
+      long allocated = bytesPerCall(entryPoint, INPUTS[i]);
+      assertTrue(String.format("%s(%s) allocated %d bytes per call; budget is %d.",
+          entryPoint, INPUTS[i], allocated, budgets[i]), allocated <= budgets[i]);
+    }
+  }
+
+  private static long bytesPerCall(EntryPoint entryPoint, String input) {
+    Url parsed = Urls.parse(input);
+    for (int i = 0; i < WARMUP; i++) {
+      sink = entryPoint.call(input, parsed);
+    }
+    long thread = Thread.currentThread().getId();
+    long before = threads.getThreadAllocatedBytes(thread);
+    for (int i = 0; i < CALLS; i++) {
+      sink = entryPoint.call(input, parsed);
+    }
+    return (threads.getThreadAllocatedBytes(thread) - before) / CALLS;
+  }
+
+  private enum EntryPoint {
+    PARSE {
+      @Override Object call(String input, Url parsed) {
+        return Urls.parse(input);
+      }
+    },
+    ESCAPE {
+      @Override Object call(String input, Url parsed) {
+        return Urls.escape(input);
+      }
+    },
+    CREATE_URI {
+      @Override Object call(String input, Url parsed) {
+        return Urls.createURI(input);
+      }
+    },
+    TO_STRING {
+      @Override Object call(String input, Url parsed) {
+        return parsed.toString();
+      }
+    },
+    URI {
+      @Override Object call(String input, Url parsed) {
+        return parsed.uri();
+      }
+    },
+    RESOLVE {
+      @Override Object call(String input, Url parsed) {
+        return parsed.resolve("../g?y#s");
+      }
+    },
+    IS_VALID {
+      @Override Object call(String input, Url parsed) {
+        return Urls.isValid(input);
+      }
+    },
+    URL_PARSER {
+      private final UrlParser parser = new UrlParser();
+
+      @Override Object call(String input, Url parsed) {
+        return parser.parse(input);
+      }
+    },
+    URL_PARSER_READ {
+      private final UrlParser parser = new UrlParser();
+
+      @Override Object call(String input, Url parsed) {
+        MutableUrl url = parser.parse(input);
+        int sum = sum(url.host()) + sum(url.fragment());
+        for (int i = 0; i < url.pathSegmentCount(); i++) {
+          sum += sum(url.pathSegment(i));
+        }
+        for (int i = 0; i < url.paramCount(); i++) {
+          sum += sum(url.key(i)) + sum(url.value(i));
+        }
+        return sum == 0 ? url : null;
+      }
+    },
+    VISIT {
+      // Reads every decoded char, so that a visitor that uses everything is measured.
+      private final UrlVisitor visitor = new UrlVisitor() {
+        int sum;
+
+        @Override public boolean visitHost(CharSequence name, String type) {
+          sum += sum(name);
+          return true;
+        }
+
+        @Override public boolean visitPathSegment(CharSequence url, int start, int end,
+            CharSequence decoded) {
+          sum += sum(decoded);
+          return true;
+        }
+
+        @Override public boolean visitParam(CharSequence url, int keyStart, int keyEnd,
+            int valueStart, int valueEnd, CharSequence key, CharSequence value) {
+          sum += sum(key) + sum(value);
+          return true;
+        }
+
+        @Override public boolean visitFragment(CharSequence url, int start, int end,
+            CharSequence decoded) {
+          sum += sum(decoded);
+          return true;
+        }
+      };
+
+      @Override Object call(String input, Url parsed) {
+        return Urls.visit(input, visitor);
+      }
+    };
+
+    abstract Object call(String input, Url parsed);
+
+    static int sum(CharSequence chars) {
+      int sum = 0;
+      for (int i = 0; i < chars.length(); i++) {
+        sum += chars.charAt(i);
+      }
+      return sum;
+    }
+  }
+}
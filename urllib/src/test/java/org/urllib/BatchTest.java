@@ -0,0 +1,135 @@
+package org.urllib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class BatchTest {
+
+  private static final int SIZE = Batch.CHUNK * 10 + 7;
+
+  @Test public void parseAll_preservesOrder() {
+    String[] urls = inputs();
+    List<ParseResult<Url>> results = Urls.parseAll(urls);
+    assertEquals(SIZE, results.size());
+    for (int i = 0; i < SIZE; i++) {
+      if (i % 10 == 3) {
+        assertFalse(results.get(i).isSuccess());
+        assertEquals(Rejection.INVALID_DNS, results.get(i).rejection());
+        assertNull(results.get(i).value());
+      } else {
+        assertEquals(Urls.parse(urls[i]), results.get(i).get());
+        assertNull(results.get(i).failure());
+      }
+    }
+  }
+
+  @Test public void parseAll_list() {
+    List<String> urls = new LinkedList<>(Arrays.asList(inputs()));
+    assertEquals(Urls.parseAll(inputs()).toString(), Urls.parseAll(urls).toString());
+  }
+
+  @Test public void escapeAll_preservesOrder() {
+    String[] urls = inputs();
+    List<ParseResult<String>> results = Urls.escapeAll(Arrays.asList(urls));
+    for (int i = 0; i < SIZE; i++) {
+      if (i % 10 == 3) {
+        assertEquals(Rejection.INVALID_DNS, results.get(i).rejection());
+      } else {
+        assertEquals(Urls.escape(urls[i]), results.get(i).get());
+      }
+    }
+  }
+
+  @Test public void getThrowsFailure() {
+    ParseResult<Url> result = Urls.parseAll(new String[]{"ftp://host.com"}).get(0);
+    try {
+      result.get();
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertEquals(result.failure(), expected);
+      assertEquals(Rejection.BAD_SCHEME, result.rejection());
+    }
+  }
+
+  @Test public void smallBatchRunsOnCallingThread() {
+    CountingExecutor executor = new CountingExecutor();
+    List<ParseResult<Url>> results =
+        Urls.parseAll(new String[]{"http://a.com", "http://b.com"}, executor);
+    assertEquals(2, results.size());
+    assertEquals(0, executor.submitted.get());
+  }
+
+  @Test public void completesWhenExecutorNeverRuns() {
+    final List<Runnable> ignored = new ArrayList<>();
+    Executor queueOnly = new Executor() {
+      @Override public void execute(Runnable command) {
+        ignored.add(command);
+      }
+    };
+    assertEquals(Urls.parseAll(inputs()).toString(),
+        Urls.parseAll(inputs(), queueOnly).toString());
+  }
+
+  @Test public void completesWhenExecutorRejects() {
+    Executor rejecting = new Executor() {
+      @Override public void execute(Runnable command) {
+        throw new RejectedExecutionException();
+      }
+    };
+    assertEquals(SIZE, Urls.escapeAll(inputs(), rejecting).size());
+  }
+
+  @Test public void usesExecutor() {
+    CountingExecutor executor = new CountingExecutor();
+    Urls.parseAll(inputs(), executor);
+    assertEquals(Runtime.getRuntime().availableProcessors() > 1, executor.submitted.get() > 0);
+  }
+
+  @Test public void unexpectedExceptionPropagates() {
+    String[] urls = inputs();
+    urls[SIZE - 1] = null;
+    try {
+      Urls.parseAll(urls);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  @Test public void resultsAreUnmodifiable() {
+    try {
+      Urls.parseAll(new String[]{"http://host.com"}).set(0, null);
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  private static String[] inputs() {
+    String[] urls = new String[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      urls[i] = i % 10 == 3
+          ? "http://host_" + i + ".com"
+          : "http://host" + i + ".com/p/" + i + "?q=" + i;
+    }
+    return urls;
+  }
+
+  private static class CountingExecutor implements Executor {
+    final AtomicInteger submitted = new AtomicInteger();
+
+    @Override public void execute(Runnable command) {
+      submitted.incrementAndGet();
+      new Thread(command).start();
+    }
+  }
+}
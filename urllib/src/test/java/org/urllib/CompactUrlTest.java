@@ -0,0 +1,70 @@
+package org.urllib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CompactUrlTest {
+
+  @Test public void equalsParsedUrl() {
+    String[] urls = {
+        "http://host.com", "HTTPS://Host.COM.:443/", "https://host.com:80/a/b/",
+        "http://host.com:8080/a%2Fb/c%3F/%23?q=1+2&q=%26&k=a=b&e=&f#frag?#x",
+        "http://host.com/?a?b=c?", "http://host.com/#", "http://host.com/a/../b/./c",
+        "http://1.2.3.4:99/", "http://host1/", "http://[2001:DB8::1]:8080/", "http://[::1]",
+        "https://bücher.de/❄?❄=🐶#🐶", "http://host.com/%zz/%C3%28",
+    };
+    for (String input : urls) {
+      Url url = Urls.parse(input);
+      Url compact = Urls.compact(url);
+      assertTrue(input, compact instanceof CompactUrl);
+      assertEquals(input, url, compact);
+      assertEquals(input, compact, url);
+      assertEquals(input, url.hashCode(), compact.hashCode());
+      assertEquals(input, url.toString(), compact.toString());
+      assertEquals(input, url.scheme(), compact.scheme());
+      assertEquals(input, url.host(), compact.host());
+      assertEquals(input, url.port(), compact.port());
+      assertEquals(input, url.path(), compact.path());
+      assertEquals(input, url.query(), compact.query());
+      assertEquals(input, url.fragment(), compact.fragment());
+    }
+  }
+
+  @Test public void builtUrl() {
+    Url url = Urls.https("host.com").port(8443).path("a b", "c/").query("k", "v&w")
+        .fragment("f").create();
+    assertEquals(url, Urls.compact(url));
+  }
+
+  @Test public void keepsUrlsThatDontSurviveToString() {
+    String[] urls = {
+        "http://host.com/\uD800", "http://host.com/?k=\uDC00", "http://host.com/#\uD800x",
+        "http://host.com/?a&=&b",
+    };
+    for (String input : urls) {
+      Url url = Urls.parse(input);
+      assertSame(input, url, Urls.compact(url));
+    }
+  }
+
+  @Test public void comparesOtherCompactUrlsByString() {
+    Url a = Urls.compact(Urls.parse("http://host.com/a?q#f"));
+    assertEquals(a, Urls.compact(Urls.parse("HTTP://HOST.com:80/a?q#f")));
+    assertNotEquals(a, Urls.compact(Urls.parse("http://host.com/a?q#g")));
+    assertNotEquals(a, Urls.compact(Urls.parse("https://host.com/a?q#f")));
+  }
+
+  @Test public void alreadyCompact() {
+    Url compact = Urls.compact(Urls.parse("http://host.com/a"));
+    assertSame(compact, Urls.compact(compact));
+  }
+
+  @Test public void resolve() {
+    Url compact = Urls.compact(Urls.parse("http://host.com/a/b?q#f"));
+    assertEquals(Urls.parse("http://host.com/a/c"), compact.resolve("c"));
+  }
+}
@@ -0,0 +1,75 @@
+package org.urllib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.urllib.ParseListener.Operation;
+import org.urllib.ParseListener.Stage;
+
+public class LatencyHistogramTest {
+
+  @Test public void bucketsCoverEveryValue() {
+    long[] values = {0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE};
+    for (long value : values) {
+      int bucket = LatencyHistogram.bucket(value);
+      assertTrue(value + " <= " + LatencyHistogram.highestValueIn(bucket),
+          value <= LatencyHistogram.highestValueIn(bucket));
+      if (bucket > 0) {
+        assertTrue(value > LatencyHistogram.highestValueIn(bucket - 1));
+      }
+    }
+  }
+
+  @Test public void bucketsAreWithinOneSixteenth() {
+    for (long value = 16; value < 1000000; value += 997) {
+      long highest = LatencyHistogram.highestValueIn(LatencyHistogram.bucket(value));
+      assertTrue(highest - value <= value / 16);
+    }
+  }
+
+  @Test public void percentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 100; i++) {
+      histogram.onStage(Operation.PARSE, Stage.HOST, i * 1000);
+    }
+    assertEquals(100, histogram.count(Stage.HOST));
+    assertEquals(0, histogram.count(Stage.PATH));
+    assertWithinOneSixteenth(50000, histogram.percentile(Stage.HOST, 0.5));
+    assertWithinOneSixteenth(99000, histogram.percentile(Stage.HOST, 0.99));
+    assertWithinOneSixteenth(100000, histogram.percentile(Stage.HOST, 1));
+    assertEquals(0, histogram.percentile(Stage.PATH, 0.5));
+  }
+
+  @Test public void operationsAndFailures() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.onComplete(Operation.PARSE, 10, true, 500);
+    histogram.onComplete(Operation.PARSE, 10, false, 700);
+    assertEquals(2, histogram.count(Operation.PARSE));
+    assertEquals(1, histogram.failures(Operation.PARSE));
+    assertEquals(0, histogram.count(Operation.ESCAPE));
+
+    histogram.reset();
+    assertEquals(0, histogram.count(Operation.PARSE));
+    assertEquals(0, histogram.failures(Operation.PARSE));
+  }
+
+  @Test public void recordsFromUrls() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Urls.setListener(histogram);
+    try {
+      Urls.parse("http://host.com/a?b");
+      Urls.escape("http://host.com/a?b");
+    } finally {
+      Urls.setListener(null);
+    }
+    assertEquals(1, histogram.count(Operation.PARSE));
+    assertEquals(1, histogram.count(Operation.ESCAPE));
+    assertEquals(2, histogram.count(Stage.HOST));
+    assertTrue(histogram.percentile(Operation.PARSE, 0.5) > 0);
+  }
+
+  private static void assertWithinOneSixteenth(long expected, long actual) {
+    assertTrue(expected + " ~ " + actual, actual >= expected && actual - expected <= expected / 16);
+  }
+}
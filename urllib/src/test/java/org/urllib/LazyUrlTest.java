@@ -0,0 +1,65 @@
+package org.urllib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class LazyUrlTest {
+
+  @Test public void equalToBuiltUrl() {
+    Url parsed = Urls.parse("https://host.com:8443/a/b%20c/?k=v&k2#frag");
+    Url built = Urls.https("host.com")
+        .port(8443)
+        .path("a", "b c", "")
+        .query("k", "v")
+        .fragment("frag")
+        .create();
+    Url withTwoParams = built.resolve("?k=v&k2#frag");
+    assertEquals(withTwoParams, parsed);
+    assertEquals(parsed, withTwoParams);
+    assertEquals(withTwoParams.hashCode(), parsed.hashCode());
+    assertEquals(withTwoParams.toString(), parsed.toString());
+  }
+
+  @Test public void notEqualWhenComponentDiffers() {
+    assertNotEquals(Urls.parse("http://host.com/a"), Urls.parse("http://host.com/b"));
+    assertNotEquals(Urls.parse("http://host.com/?q"), Urls.parse("http://host.com/?r"));
+    assertNotEquals(Urls.parse("http://host.com/#f"), Urls.parse("http://host.com/#g"));
+    assertNotEquals(Urls.parse("http://host.com:81"), Urls.parse("http://host.com"));
+    assertNotEquals(Urls.parse("http://host.com"), Urls.parse("https://host.com"));
+  }
+
+  @Test public void toStringAndUriAreBuiltOnce() {
+    Url parsed = Urls.parse("http://host.com/a b?q#%7E");
+    Url built = Urls.http("host.com").path("a b").fragment("~").create();
+    for (Url url : new Url[] {parsed, built}) {
+      assertSame(url.toString(), url.toString());
+      assertSame(url.uri(), url.uri());
+      assertEquals(url.toString(), url.uri().toString());
+    }
+  }
+
+  @Test public void componentsAreDecodedOnce() {
+    Url url = Urls.parse("http://host.com/a/%7E?q=%20#%7E");
+    assertSame(url.path(), url.path());
+    assertSame(url.query(), url.query());
+    assertSame(url.fragment(), url.fragment());
+    assertEmpty(Urls.parse("http://host.com"));
+    assertEmpty(Urls.parse("http://host.com/?#"));
+  }
+
+  @Test public void defaultPort() {
+    assertEquals(80, Urls.parse("http://host.com").port());
+    assertEquals(443, Urls.parse("https://host.com").port());
+    assertEquals(8080, Urls.parse("https://host.com:8080").port());
+    assertEquals("https://host.com/", Urls.parse("https://host.com:443").toString());
+  }
+
+  private static void assertEmpty(Url url) {
+    assertEquals("/", url.path().encoded());
+    assertEquals(true, url.query().isEmpty());
+    assertEquals("", url.fragment());
+  }
+}
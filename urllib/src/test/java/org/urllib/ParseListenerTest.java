@@ -0,0 +1,110 @@
+package org.urllib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import org.urllib.ParseListener.Operation;
+import org.urllib.ParseListener.Stage;
+import org.urllib.internal.StandardCharsets;
+
+public class ParseListenerTest {
+
+  private final RecordingListener listener = new RecordingListener();
+
+  @After public void tearDown() {
+    Urls.setListener(null);
+  }
+
+  @Test public void parseReportsEachStage() {
+    Urls.setListener(listener);
+    Urls.parse("http://host.com/path?q#f");
+    assertEquals(Arrays.asList(Stage.SPLIT, Stage.AUTHORITY, Stage.HOST), listener.stages);
+    assertEquals(Arrays.asList("PARSE:24:true"), listener.completions);
+  }
+
+  @Test public void parseBytesReportsSanitizing() {
+    Urls.setListener(listener);
+    Urls.parse(" http://host.com/ ".getBytes(StandardCharsets.UTF_8), 0, 17);
+    assertEquals(Arrays.asList(Stage.SANITIZE, Stage.SPLIT, Stage.AUTHORITY, Stage.HOST),
+        listener.stages);
+  }
+
+  @Test public void parseDefersPathQueryAndFragment() {
+    Url url = Urls.parse("http://host.com/path?q#f");
+    Urls.setListener(listener);
+    url.path();
+    url.query();
+    url.fragment();
+    assertEquals(0, listener.stages.size());
+  }
+
+  @Test public void parseSkipsAbsentComponents() {
+    Urls.setListener(listener);
+    Urls.parse("http://host.com");
+    assertEquals(Arrays.asList(Stage.SPLIT, Stage.AUTHORITY, Stage.HOST), listener.stages);
+  }
+
+  @Test public void escapeReportsEachStage() {
+    Urls.setListener(listener);
+    Urls.escape(" http://host.com/a b?q ");
+    assertEquals(Arrays.asList(Stage.SPLIT, Stage.AUTHORITY, Stage.HOST, Stage.PATH,
+        Stage.QUERY), listener.stages);
+    assertEquals(Arrays.asList("ESCAPE:23:true"), listener.completions);
+  }
+
+  @Test public void resolveReportsEachStage() {
+    Url base = Urls.parse("http://host.com/a/b");
+    Urls.setListener(listener);
+    base.resolve("c?q");
+    assertEquals(Arrays.asList(Stage.SANITIZE, Stage.SPLIT, Stage.PATH, Stage.QUERY),
+        listener.stages);
+    assertEquals(Arrays.asList("RESOLVE:3:true"), listener.completions);
+  }
+
+  @Test public void resolveFullUrlIsOneOperation() {
+    Url base = Urls.parse("http://host.com/a/b");
+    Urls.setListener(listener);
+    base.resolve("http://other.com");
+    assertEquals(Arrays.asList(Stage.SANITIZE, Stage.SPLIT, Stage.SPLIT, Stage.AUTHORITY,
+        Stage.HOST), listener.stages);
+    assertEquals(Arrays.asList("RESOLVE:16:true"), listener.completions);
+  }
+
+  @Test public void failuresAreReported() {
+    Urls.setListener(listener);
+    try {
+      Urls.parse("http://host..com");
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    assertEquals(Arrays.asList(Stage.SPLIT, Stage.AUTHORITY), listener.stages);
+    assertEquals(Arrays.asList("PARSE:16:false"), listener.completions);
+  }
+
+  @Test public void unregister() {
+    Urls.setListener(listener);
+    Urls.setListener(null);
+    Urls.parse("http://host.com");
+    assertEquals(0, listener.stages.size());
+    assertEquals(0, listener.completions.size());
+  }
+
+  private static class RecordingListener implements ParseListener {
+    final List<Stage> stages = new ArrayList<>();
+    final List<String> completions = new ArrayList<>();
+
+    @Override public void onStage(Operation operation, Stage stage, long nanos) {
+      stages.add(stage);
+    }
+
+    @Override public void onComplete(Operation operation, int inputLength, boolean success,
+        long nanos) {
+      completions.add(operation + ":" + inputLength + ":" + success);
+    }
+  }
+}
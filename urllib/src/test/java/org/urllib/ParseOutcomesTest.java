@@ -0,0 +1,65 @@
+package org.urllib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.urllib.ParseListener.Operation;
+
+public class ParseOutcomesTest {
+
+  @Test public void countsAcceptedInputs() {
+    ParseOutcomes before = Urls.outcomes();
+    Urls.parse("http://host.com");
+    Urls.parse("http://host.com/a");
+    Urls.escape("http://host.com/a");
+    ParseOutcomes delta = Urls.outcomes().since(before);
+    assertEquals(2, delta.accepted(Operation.PARSE));
+    assertEquals(1, delta.accepted(Operation.ESCAPE));
+    assertEquals(0, delta.rejected(Operation.PARSE));
+  }
+
+  @Test public void countsRejectionsByReason() {
+    assertRejected(Rejection.NOT_FULL_URL, "//host.com");
+    assertRejected(Rejection.NOT_FULL_URL, "path/info.pdf");
+    assertRejected(Rejection.BAD_SCHEME, "ftp://host.com");
+    assertRejected(Rejection.MISSING_HOST, "http://");
+    assertRejected(Rejection.MISSING_HOST, "http://user@:80");
+    assertRejected(Rejection.INVALID_DNS, "http://host_name.com");
+    assertRejected(Rejection.INVALID_IDN, "http://host..com");
+    assertRejected(Rejection.INVALID_IPV4, "http://1.1.1.256");
+    assertRejected(Rejection.INVALID_IPV6, "http://[a:1:b]");
+    assertRejected(Rejection.BAD_PORT, "http://host.com:0x01");
+  }
+
+  @Test public void escapeAndResolveAreCountedSeparately() {
+    ParseOutcomes before = Urls.outcomes();
+    try {
+      Urls.escape("ftp://host.com");
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      Urls.parse("http://host.com").resolve("http://host.com:99999");
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    ParseOutcomes delta = Urls.outcomes().since(before);
+    assertEquals(1, delta.rejected(Operation.ESCAPE, Rejection.BAD_SCHEME));
+    assertEquals(1, delta.rejected(Operation.RESOLVE, Rejection.BAD_PORT));
+    assertEquals(1, delta.accepted(Operation.PARSE));
+    assertEquals(0, delta.rejected(Operation.PARSE));
+  }
+
+  private static void assertRejected(Rejection reason, String url) {
+    ParseOutcomes before = Urls.outcomes();
+    try {
+      Urls.parse(url);
+      fail("Expected IllegalArgumentException for: " + url);
+    } catch (IllegalArgumentException expected) {
+    }
+    ParseOutcomes delta = Urls.outcomes().since(before);
+    assertEquals(url + ": " + delta, 1, delta.rejected(Operation.PARSE, reason));
+    assertEquals(url + ": " + delta, 1, delta.rejected(Operation.PARSE));
+  }
+}
@@ -0,0 +1,121 @@
+package org.urllib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Test;
+
+public class UrlCacheTest {
+
+  private final UrlCache cache = new UrlCache(64);
+
+  @After public void tearDown() {
+    Urls.setCache(null);
+  }
+
+  @Test public void returnsCachedUrl() {
+    Urls.setCache(cache);
+    Url first = Urls.parse("http://host.com/a?k=v");
+    assertSame(first, Urls.parse("http://host.com/a?k=v"));
+    assertSame(first, Urls.tryParse("http://host.com/a?k=v").value());
+    assertEquals(2, cache.hits());
+    assertEquals(1, cache.misses());
+  }
+
+  @Test public void onlyCachesStrings() {
+    Urls.setCache(cache);
+    StringBuilder sb = new StringBuilder("http://host.com/a");
+    Url first = Urls.parse(sb);
+    sb.append('b');
+    assertEquals("http://host.com/ab", Urls.parse(sb).toString());
+    assertNotSame(first, Urls.parse(sb));
+    assertEquals(0, cache.hits() + cache.misses());
+  }
+
+  @Test public void doesNotCacheRejections() {
+    Urls.setCache(cache);
+    for (int i = 0; i < 2; i++) {
+      try {
+        Urls.parse("ftp://host.com");
+        fail();
+      } catch (IllegalArgumentException expected) {
+      }
+    }
+    assertEquals(0, cache.hits());
+    assertEquals(2, cache.misses());
+  }
+
+  @Test public void staysBounded() {
+    UrlCache cache = new UrlCache(8);
+    for (int i = 0; i < 100; i++) {
+      String url = "http://host.com/" + i;
+      cache.put(url, Urls.parse(url));
+    }
+    int cached = 0;
+    for (int i = 0; i < 100; i++) {
+      if (cache.get("http://host.com/" + i) != null) {
+        cached++;
+      }
+    }
+    assertTrue(cached <= 8);
+    assertTrue(cache.evictions() >= 100 - 8);
+  }
+
+  @Test public void keepsRecentlyReadEntries() {
+    UrlCache cache = new UrlCache(4);
+    Url hot = Urls.parse("http://hot.com");
+    cache.put("http://hot.com", hot);
+    for (int i = 0; i < 100; i++) {
+      assertSame(hot, cache.get("http://hot.com"));
+      String url = "http://host.com/" + i;
+      cache.put(url, Urls.parse(url));
+    }
+  }
+
+  @Test public void clear() {
+    cache.put("http://host.com", Urls.parse("http://host.com"));
+    cache.clear();
+    assertEquals(null, cache.get("http://host.com"));
+  }
+
+  @Test public void rejectsBadSize() {
+    try {
+      new UrlCache(0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  @Test public void concurrentParses() throws Exception {
+    Urls.setCache(cache);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(executor.submit(new Runnable() {
+          @Override public void run() {
+            for (int i = 0; i < 10000; i++) {
+              String url = "http://host.com/" + i % 200;
+              assertEquals(url, Urls.parse(url).toString());
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(40000, cache.hits() + cache.misses());
+  }
+}
@@ -0,0 +1,55 @@
+package org.urllib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class UrlInternerTest {
+
+  private final UrlInterner interner = new UrlInterner(64, 64);
+
+  @After public void tearDown() {
+    Urls.setInterner(null);
+  }
+
+  @Test public void sharesHosts() {
+    Urls.setInterner(interner);
+    String[] hosts = {"http://host.com", "http://1.2.3.4", "http://[::1]", "http://bücher.de"};
+    for (String host : hosts) {
+      Url first = Urls.parse(host + "/a");
+      Url second = Urls.parse(host.toUpperCase() + "/b");
+      assertSame(host, first.host(), second.host());
+    }
+  }
+
+  @Test public void sharesPathSegmentsAndQueryKeys() {
+    Urls.setInterner(interner);
+    Url first = Urls.parse("http://a.com/search/x?q=1&page");
+    Url second = Urls.parse("https://b.com/search/y?page=2&q=3");
+    assertSame(first.path().segments().get(0), second.path().segments().get(0));
+    assertSame(first.query().params().get(0).key(), second.query().params().get(1).key());
+    assertSame(first.query().params().get(1).key(), second.query().params().get(0).key());
+  }
+
+  @Test public void countsHitsAndMisses() {
+    Urls.setInterner(interner);
+    Urls.parse("http://host.com/a").path();
+    Urls.parse("http://host.com/a").path();
+    assertEquals(2, interner.hits());
+    assertEquals(2, interner.misses());
+  }
+
+  @Test public void clear() {
+    Urls.setInterner(interner);
+    Host host = Urls.parse("http://host.com").host();
+    interner.clear();
+    assertNotSame(host, Urls.parse("http://host.com").host());
+  }
+
+  @Test public void offByDefault() {
+    assertNotSame(Urls.parse("http://host.com").host(), Urls.parse("http://host.com").host());
+  }
+}
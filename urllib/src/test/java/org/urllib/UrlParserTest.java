@@ -0,0 +1,143 @@
+package org.urllib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.urllib.Query.KeyValue;
+import org.urllib.internal.InvalidUrlException;
+
+public class UrlParserTest {
+
+  private final UrlParser parser = new UrlParser();
+
+  @Test public void agreesWithParse() {
+    String[] urls = {
+        "http://host.com", "HTTPS://Host.COM.:443/", "http://user:pw@host.com:8080/a/b",
+        "  http://host.com/a b/?q=1 2#f g \n", "http://\n  host.com/p\n  ath",
+        "http://host.com/a/./b/../c/%2e%2E/d/", "http://host.com/..", "http://host.com\\a\\b",
+        "http://host.com/%7Efile%2Fname/%zz%4", "http://host.com/%C3%A9/%C3%28/%E2%82/%F0",
+        "http://host.com/❄/🐶/\uD800x", "http://host.com/?a=b&&c&=d&e=&f=g=h&+x+=%2B",
+        "http://host.com/?q#a+b%20c", "http://host.com/?#", "http://host.com/#%",
+        "http://1.2.3.4/", "http://[2001:DB8::1]:8080/", "https://bücher.de/", "http://h%6fst/",
+        "http://-host.com/", "http://host.com:+80/", "http://host.com/?+a\uD800",
+    };
+    for (String url : urls) {
+      assertAgrees(url);
+    }
+  }
+
+  @Test public void rejectsLikeParse() {
+    String[] urls = {
+        "", "/relative", "//host.com", "ftp://host.com", "http://", "http://:80",
+        "http://host.com:99999", "http://host com", "http://[zz::1]", "http://1.2.3.256",
+        "http://0x7f.1", "http://host_1.com", "http://a..b",
+    };
+    for (String url : urls) {
+      Rejection expected = rejection(url);
+      try {
+        parser.parse(url);
+        fail(url);
+      } catch (InvalidUrlException e) {
+        assertEquals(url, expected, e.reason());
+      }
+    }
+  }
+
+  @Test public void reusesResult() {
+    MutableUrl first = parser.parse("http://a.com/x/y?k=v#f");
+    assertSame(first, parser.parse("https://b.com"));
+    assertEquals("https", first.scheme());
+    assertEquals("b.com", first.host().toString());
+    assertEquals(0, first.pathSegmentCount());
+    assertEquals(0, first.paramCount());
+    assertEquals("", first.fragment().toString());
+  }
+
+  @Test public void toImmutableOutlivesNextParse() {
+    Url url = parser.parse("http://a.com/x?k=v").toImmutable();
+    parser.parse("http://b.com/y?l=w");
+    assertEquals(Urls.parse("http://a.com/x?k=v"), url);
+  }
+
+  @Test public void growsBuffers() {
+    StringBuilder sb = new StringBuilder("http://host.com/");
+    for (int i = 0; i < 100; i++) {
+      sb.append("segment").append(i).append("%20/");
+    }
+    for (int i = 0; i < 100; i++) {
+      sb.append("%C3%A9");
+    }
+    sb.append('?');
+    for (int i = 0; i < 100; i++) {
+      sb.append("key").append(i).append("=value").append(i).append('&');
+    }
+    assertAgrees(sb.toString());
+  }
+
+  @Test public void accessorsReuseTheirViews() {
+    MutableUrl url = parser.parse("http://host.com/?a=1&b=2");
+    CharSequence key = url.key(0);
+    CharSequence value = url.value(0);
+    assertSame(key, url.key(1));
+    assertEquals("b", key.toString());
+    assertEquals("1", value.toString());
+  }
+
+  @Test public void indexOutOfBounds() {
+    MutableUrl url = parser.parse("http://host.com/a?k=v");
+    try {
+      url.pathSegment(1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+    try {
+      url.value(-1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  private void assertAgrees(String input) {
+    Url expected = Urls.parse(input);
+    MutableUrl url = parser.parse(input);
+    assertEquals(input, expected.scheme(), url.scheme());
+    assertEquals(input, expected.host().name(), url.host().toString());
+    assertEquals(input, expected.port(), url.port());
+
+    List<String> segments = new ArrayList<>();
+    for (int i = 0; i < url.pathSegmentCount(); i++) {
+      segments.add(url.pathSegment(i).toString());
+    }
+    assertEquals(input, expected.path().segments(), segments);
+    assertEquals(input, expected.path().isDirectory(), url.isDirectory());
+
+    List<String> params = new ArrayList<>();
+    for (KeyValue param : expected.query().params()) {
+      params.add(param.key() + "=" + param.value());
+    }
+    List<String> actualParams = new ArrayList<>();
+    for (int i = 0; i < url.paramCount(); i++) {
+      actualParams.add(url.key(i) + "=" + url.value(i));
+    }
+    assertEquals(input, params, actualParams);
+    assertEquals(input, expected.fragment(), url.fragment().toString());
+
+    Url immutable = url.toImmutable();
+    assertEquals(input, expected, immutable);
+    assertEquals(input, expected.toString(), immutable.toString());
+    assertEquals(input, expected.toString(), url.toString());
+  }
+
+  private static Rejection rejection(String url) {
+    try {
+      Urls.parse(url);
+      throw new AssertionError("Expected " + url + " to be rejected");
+    } catch (InvalidUrlException e) {
+      return e.reason();
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package org.urllib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.urllib.Query.KeyValue;
+import org.urllib.internal.InvalidUrlException;
+
+public class UrlVisitorTest {
+
+  private final Recorder recorder = new Recorder(Integer.MAX_VALUE);
+
+  @Test public void agreesWithParse() {
+    String[] urls = {
+        "http://host.com", "HTTPS://Host.COM.:443/", "http://user:pw@host.com:8080/a/b",
+        "  http://host.com/a b/?q=1 2#f g \n", "http://\n  host.com/p\n  ath",
+        "http://host.com/a/./b/../c/%2e%2E/d/", "http://host.com/..", "http://host.com\\a\\b",
+        "http://host.com/%7Efile%2Fname/%zz%4", "http://host.com/%C3%A9/%C3%28/%E2%82/%F0",
+        "http://host.com/?a=b&&c&=d&e=&f=g=h&+x+=%2B", "http://host.com/?#",
+        "http://host.com/#a+b%20c", "http://1.2.3.4/", "http://[2001:DB8::1]:8080/",
+        "https://bücher.de/", "http://xn--bcher-kva.de/", "http://h%6fst/",
+    };
+    for (String url : urls) {
+      assertAgrees(url);
+    }
+  }
+
+  @Test public void hostTypes() {
+    Urls.visit("http://Host.com", recorder);
+    Urls.visit("http://xn--bcher-kva.de", recorder);
+    Urls.visit("http://bücher.de", recorder);
+    Urls.visit("http://1.2.3.4", recorder);
+    Urls.visit("http://[::1]", recorder);
+    assertEquals(Arrays.asList("host.com DNS", "xn--bcher-kva.de IDN", "xn--bcher-kva.de IDN",
+        "1.2.3.4 IPv4", "[::1] IPv6"), recorder.hosts);
+  }
+
+  @Test public void rawRanges() {
+    final List<String> raw = new ArrayList<>();
+    Urls.visit("http://host.com/a%20b/?k%3D=v+w", new UrlVisitor() {
+      @Override public boolean visitPathSegment(CharSequence url, int start, int end,
+          CharSequence decoded) {
+        raw.add(url.subSequence(start, end) + " " + decoded);
+        return true;
+      }
+
+      @Override public boolean visitParam(CharSequence url, int keyStart, int keyEnd,
+          int valueStart, int valueEnd, CharSequence key, CharSequence value) {
+        raw.add(url.subSequence(keyStart, keyEnd) + "=" + url.subSequence(valueStart, valueEnd)
+            + " " + key + "=" + value);
+        return true;
+      }
+    });
+    assertEquals(Arrays.asList("a%20b a b", "k%3D=v+w k==v w"), raw);
+  }
+
+  @Test public void stopsEarly() {
+    Recorder recorder = new Recorder(2);
+    assertFalse(Urls.visit("http://host.com/a/b/c?k=v#f", recorder));
+    assertEquals(Arrays.asList("a", "b"), recorder.segments);
+    assertTrue(recorder.params.isEmpty());
+    assertEquals(null, recorder.fragment);
+
+    assertTrue(Urls.visit("http://host.com/a?k=v#f", new Recorder(2)));
+  }
+
+  @Test public void rejectsBeforeVisiting() {
+    String[] urls = {"/relative", "ftp://host.com", "http://host.com:99999", "http://a..b"};
+    for (String url : urls) {
+      Rejection expected = rejection(url);
+      try {
+        Urls.visit(url, recorder);
+        fail(url);
+      } catch (InvalidUrlException e) {
+        assertEquals(url, expected, e.reason());
+      }
+      assertTrue(url, recorder.hosts.isEmpty());
+    }
+  }
+
+  private void assertAgrees(String input) {
+    Url expected = Urls.parse(input);
+    Recorder recorder = new Recorder(Integer.MAX_VALUE);
+    assertTrue(input, Urls.visit(input, recorder));
+    assertEquals(input, expected.scheme(), recorder.scheme);
+    assertEquals(input, expected.host().name(), recorder.hosts.get(0).split(" ")[0]);
+    assertEquals(input, expected.port(), recorder.port);
+    assertEquals(input, expected.path().segments(), recorder.segments);
+    List<String> params = new ArrayList<>();
+    for (KeyValue param : expected.query().params()) {
+      params.add(param.key() + "=" + param.value());
+    }
+    assertEquals(input, params, recorder.params);
+    assertEquals(input, expected.fragment(),
+        recorder.fragment == null ? "" : recorder.fragment);
+  }
+
+  private static Rejection rejection(String url) {
+    try {
+      Urls.parse(url);
+      throw new AssertionError("Expected " + url + " to be rejected");
+    } catch (InvalidUrlException e) {
+      return e.reason();
+    }
+  }
+
+  /** Records what it visits, stopping after {@code maxSegments} path segments. */
+  private static class Recorder extends UrlVisitor {
+
+    private final int maxSegments;
+    String scheme;
+    final List<String> hosts = new ArrayList<>();
+    int port;
+    final List<String> segments = new ArrayList<>();
+    final List<String> params = new ArrayList<>();
+    String fragment;
+
+    Recorder(int maxSegments) {
+      this.maxSegments = maxSegments;
+    }
+
+    @Override public boolean visitScheme(String scheme) {
+      this.scheme = scheme;
+      return true;
+    }
+
+    @Override public boolean visitHost(CharSequence name, String type) {
+      hosts.add(name + " " + type);
+      return true;
+    }
+
+    @Override public boolean visitPort(int port) {
+      this.port = port;
+      return true;
+    }
+
+    @Override public boolean visitPathSegment(CharSequence url, int start, int end,
+        CharSequence decoded) {
+      segments.add(decoded.toString());
+      return segments.size() < maxSegments;
+    }
+
+    @Override public boolean visitParam(CharSequence url, int keyStart, int keyEnd,
+        int valueStart, int valueEnd, CharSequence key, CharSequence value) {
+      params.add(key + "=" + value);
+      return true;
+    }
+
+    @Override public boolean visitFragment(CharSequence url, int start, int end,
+        CharSequence decoded) {
+      fragment = decoded.toString();
+      return true;
+    }
+  }
+}
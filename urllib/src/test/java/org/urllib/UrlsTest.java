@@ -2,16 +2,23 @@ package org.urllib;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.util.Arrays;
 import org.junit.Test;
+import org.urllib.internal.InvalidUrlException;
 import org.urllib.internal.Paths;
 import org.urllib.internal.Queries;
 import org.urllib.internal.Scheme;
+import org.urllib.internal.StandardCharsets;
 
 public class UrlsTest {
 
@@ -301,6 +308,12 @@ public class UrlsTest {
     assertEquals(decoded, encoded);
   }
 
+  @Test public void parseKeepsUnpairedSurrogateInQueryWithPlus() {
+    Url url = Urls.parse("http://host.com/?+a\uD800");
+    assertEquals(" a\uD800", url.query().params().get(0).key());
+    assertEquals("http://host.com/?%20a%ED%A0%80", url.toString());
+  }
+
   @Test public void parseHandlesSlashesInBothDirections() {
     assertEquals(Urls.parse("http://host.com/a/b/"), Urls.parse("http:\\\\host.com\\a\\b\\"));
   }
@@ -832,6 +845,224 @@ public class UrlsTest {
     verifyEscaping("#%25zz", "#%zz");
   }
 
+  @Test public void parseBytes_sameAsString() {
+    String[] urls = {
+        "http://host.com", " https://user@HOST.com:8080/a/../b%20c?q=a+b&k#%7E\n",
+        "http://❄.com/❄?❄=❄#❄", "http://[::1]/%E2%9D%84", "http://host.com/a\n  b\r\n\tc",
+        "http://bücher.de/%zz?%", "HTTPS://host.com:443/%2e%2E/",
+    };
+    for (String url : urls) {
+      byte[] utf8 = url.getBytes(StandardCharsets.UTF_8);
+      Url expected = Urls.parse(url);
+      assertEquals(url, expected, Urls.parse(utf8, 0, utf8.length));
+      assertEquals(url, expected, Urls.parse(ByteBuffer.wrap(utf8)));
+      assertEquals(url, expected.toString(), Urls.parse(utf8, 0, utf8.length).toString());
+    }
+  }
+
+  @Test public void parseBytes_malformedSameAsString() {
+    byte[][] inputs = {
+        bytes("http://h/x", 0xC3, '%', 'A', '9'),
+        bytes("http://h/x", 0xC3, '\n', 0xA9),
+        bytes("http://h/", 0xE0, 0x80, 0xAF, '?', 0xED, 0xA0, 0x80, '#', 0xF4, 0x90, 0x80, 0x80),
+        bytes("http://h/", 0xF0, 0x9F, 0x98, '\r', '\n', ' ', 0x80, 0xFF),
+    };
+    for (byte[] utf8 : inputs) {
+      Url expected = Urls.parse(new String(utf8, StandardCharsets.UTF_8));
+      assertEquals(expected, Urls.parse(utf8, 0, utf8.length));
+      assertEquals(expected, Urls.parse(ByteBuffer.wrap(utf8)));
+      ByteBuffer direct = ByteBuffer.allocateDirect(utf8.length);
+      direct.put(utf8).flip();
+      assertEquals(expected, Urls.parse(direct));
+    }
+    byte[] utf8 = bytes("http://h/x", 0xC3, '%', 'A', '9');
+    assertEquals("x\ufffd\ufffd", Urls.parse(utf8, 0, utf8.length).path().filename());
+  }
+
+  @Test public void parseBytes_slice() {
+    byte[] utf8 = "GET http://host.com/❄ HTTP/1.1".getBytes(StandardCharsets.UTF_8);
+    assertEquals(Urls.parse("http://host.com/❄"), Urls.parse(utf8, 4, 20));
+  }
+
+  @Test public void parseBytes_copiesInput() {
+    byte[] utf8 = "http://host.com/path?q#f".getBytes(StandardCharsets.UTF_8);
+    Url url = Urls.parse(utf8, 0, utf8.length);
+    Arrays.fill(utf8, (byte) 'x');
+    assertEquals("/path", url.path().encoded());
+    assertEquals("q", url.query().encoded());
+    assertEquals("f", url.fragment());
+  }
+
+  @Test public void parseByteBuffer_positionUnchanged() {
+    byte[] utf8 = "http://host.com/❄".getBytes(StandardCharsets.UTF_8);
+    ByteBuffer direct = ByteBuffer.allocateDirect(utf8.length + 2);
+    direct.put((byte) ' ').put(utf8).flip();
+    direct.position(1);
+    assertEquals(Urls.parse("http://host.com/❄"), Urls.parse(direct));
+    assertEquals(1, direct.position());
+    assertEquals(utf8.length + 1, direct.limit());
+  }
+
+  @Test public void parseBytes_rejectsLikeString() {
+    String[] invalid = {"", "host.com", "ftp://host.com", "http://", "http://host..com",
+        "http://host.com:99999", "http://[zz::1]", "http://\u00ad"};
+    for (String url : invalid) {
+      byte[] utf8 = url.getBytes(StandardCharsets.UTF_8);
+      String expected = null;
+      try {
+        Urls.parse(url);
+        fail(url);
+      } catch (IllegalArgumentException e) {
+        expected = e.getMessage();
+      }
+      try {
+        Urls.parse(utf8, 0, utf8.length);
+        fail(url);
+      } catch (IllegalArgumentException e) {
+        assertEquals(expected, e.getMessage());
+      }
+    }
+  }
+
+  @Test public void charSequenceInput_sameAsString() {
+    String[] urls = {
+        "http://host.com", " https://user@HOST.com:8080/a/../b%20c?q=a+b&k#%7E\n",
+        "http://❄.com/❄?❄=❄#❄", "http://host.com/a\n  b\r\n\tc", "http://[::1]/%zz?%",
+    };
+    for (String url : urls) {
+      char[] padded = ("<<" + url + ">>").toCharArray();
+      Url expected = Urls.parse(url);
+      assertEquals(url, expected, Urls.parse(new StringBuilder(url)));
+      assertEquals(url, expected, Urls.parse(CharBuffer.wrap(url)));
+      assertEquals(url, expected, Urls.parse(padded, 2, url.length()));
+      assertEquals(url, Urls.escape(url), Urls.escape(new StringBuilder(url)));
+      assertEquals(url, Urls.escape(url), Urls.escape(padded, 2, url.length()));
+      assertEquals(url, Urls.createURI(url), Urls.createURI(new StringBuilder(url)));
+      assertEquals(url, Urls.createURI(url), Urls.createURI(padded, 2, url.length()));
+    }
+  }
+
+  @Test public void charSequenceInput_mayChangeAfterParse() {
+    StringBuilder sb = new StringBuilder("http://host.com/path?q#f");
+    Url url = Urls.parse(sb);
+    sb.setLength(0);
+    sb.append("http://other.com/x?y#z");
+    assertEquals(Urls.parse("http://host.com/path?q#f"), url);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class) public void parseBytes_badRange() {
+    Urls.parse(new byte[4], 2, 3);
+  }
+
+  @Test public void tryParse_acceptsLikeParse() {
+    String[] urls = {
+        "http://host.com", " https://user@HOST.com:8080/a/../b%20c?q=a+b&k#%7E\n",
+        "http://❄.com/❄?❄=❄#❄", "http://[::1]/%E2%9D%84", "http://host.com/a\n  b\r\n\tc",
+        "http://host.com:+80", "http://host.com:٨٠", "http://1.2.3.4.",
+        "http://" + repeat('a', 63) + ".com./", "http://host.com:",
+    };
+    for (String url : urls) {
+      ParseResult<Url> parsed = Urls.tryParse(url);
+      assertEquals(url, Urls.parse(url), parsed.get());
+      assertEquals(-1, parsed.position());
+      assertEquals(Urls.escape(url), Urls.tryEscape(url).get());
+    }
+  }
+
+  @Test public void tryParse_rejectsLikeParse() {
+    String[] invalid = {
+        "", "host.com", "/path", "ftp://host.com", "http://", "http:///", "http://user@",
+        "http://host..com", "http://.host.com", "http://" + repeat('a', 64) + ".com",
+        "http://host.com:99999", "http://host.com:0", "http://host.com:-1", "http://host.com:8a",
+        "http://[zz::1]", "http://1.2.3.256", "http://host com", "http://host_1.com",
+        "http://%2e", "http://\u00ad",
+    };
+    for (String url : invalid) {
+      Rejection expected = null;
+      try {
+        Urls.parse(url);
+        fail(url);
+      } catch (InvalidUrlException e) {
+        expected = e.reason();
+      }
+      ParseResult<Url> parsed = Urls.tryParse(url);
+      assertFalse(url, parsed.isSuccess());
+      assertNull(url, parsed.value());
+      assertEquals(url, expected, parsed.rejection());
+      assertEquals(url, expected, ((InvalidUrlException) parsed.failure()).reason());
+      assertEquals(url, expected, Urls.tryEscape(url).rejection());
+    }
+  }
+
+  @Test public void tryParse_position() {
+    assertPosition(0, "host.com/path");
+    assertPosition(2, "  ftp://host.com");
+    assertPosition(7, "http://");
+    assertPosition(7, "http://:80");
+    assertPosition(12, "http://user@:80");
+    assertPosition(16, "http://host.com:99999");
+    assertPosition(11, "http://host com");
+    assertPosition(7, "http://[zz::1]");
+    assertPosition(7, "http://1.2.3.256");
+    // Positions are in the caller's input, before internal line breaks are removed.
+    assertPosition(15, "http://\n   host com");
+  }
+
+  @Test public void tryParse_getThrows() {
+    ParseResult<Url> rejected = Urls.tryParse("ftp://host.com");
+    try {
+      rejected.get();
+      fail();
+    } catch (InvalidUrlException e) {
+      assertEquals(Rejection.BAD_SCHEME, e.reason());
+      assertThat(e.getMessage(), containsString("at index 0"));
+    }
+    assertEquals("ParseResult{rejection=BAD_SCHEME, position=0}", rejected.toString());
+  }
+
+  @Test public void tryParse_countsOutcomes() {
+    ParseOutcomes before = Urls.outcomes();
+    Urls.tryParse("http://host.com");
+    Urls.tryParse("ftp://host.com");
+    ParseOutcomes after = Urls.outcomes();
+    assertTrue(after.accepted(ParseListener.Operation.PARSE)
+        > before.accepted(ParseListener.Operation.PARSE));
+    assertTrue(after.rejected(ParseListener.Operation.PARSE, Rejection.BAD_SCHEME)
+        > before.rejected(ParseListener.Operation.PARSE, Rejection.BAD_SCHEME));
+  }
+
+  @Test public void isValid_agreesWithParse() {
+    String[] urls = {
+        "http://host.com", " https://user@HOST.com:8080/a/../b%20c?q=a+b&k#%7E\n",
+        "http://❄.com/❄?❄=❄#❄", "http://[::1]/%E2%9D%84", "http://host.com/a\n  b\r\n\tc",
+        "http://host.com:+80", "http://host.com:٨٠", "http://1.2.3.4.", "http://1.2.3.4:80",
+        "http://" + repeat('a', 63) + ".com./", "http://host.com:", "HTTP:\\\\host\\path",
+        "ht\ntp://ho\n  st.com", "http://%68ost.com", "http://[0:0::1]", "http://a:b@[::1]:1",
+        "", "host.com", "/path", "//host.com", "ftp://host.com", "http://", "http:///",
+        "http://user@", "http://host..com", "http://.host.com", "http://" + repeat('a', 64),
+        "http://host.com:99999", "http://host.com:0", "http://host.com:-1", "http://host.com:8a",
+        "http://[zz::1]", "http://[::1", "http://1.2.3.256", "http://01.2.3.4", "http://1.2.3",
+        "http://host com", "http://host_1.com", "http://%2e", "http://.", "http://\u00ad",
+        "http://ex%zzample.com", "http://[1:2:3:4:5:6:7:8:9]", "http://:80", "1http://host",
+        "http:\n//host.com", "h*ttp://host.com",
+    };
+    for (String url : urls) {
+      assertEquals(url, Urls.tryParse(url).isSuccess(), Urls.isValid(url));
+      assertEquals(url, Urls.tryParse(url).isSuccess(), Urls.isValid(new StringBuilder(url)));
+    }
+  }
+
+  private static void assertPosition(int expected, String url) {
+    assertEquals(url, expected, Urls.tryParse(url).position());
+    assertEquals(url, expected, Urls.tryEscape(url).position());
+  }
+
+  private static String repeat(char c, int count) {
+    char[] chars = new char[count];
+    Arrays.fill(chars, c);
+    return new String(chars);
+  }
+
   private void verifyEscaping(String expected, String input) {
     expected = "http://host" + expected;
     input = "http://host" + input;
@@ -842,4 +1073,13 @@ public class UrlsTest {
     }
     assertEquals(expected, Urls.escape(input));
   }
-}
\ No newline at end of file
+
+  private static byte[] bytes(String prefix, int... suffix) {
+    byte[] bytes = Arrays.copyOf(prefix.getBytes(StandardCharsets.UTF_8),
+        prefix.length() + suffix.length);
+    for (int i = 0; i < suffix.length; i++) {
+      bytes[prefix.length() + i] = (byte) suffix[i];
+    }
+    return bytes;
+  }
+}
@@ -87,6 +87,19 @@ public class PathsTest {
     assertEquals(Paths.of("/path/"), Paths.of("\\path\\"));
   }
 
+  @Test public void dotLookalikesAreSegments() {
+    assertEquals(Arrays.asList("..."), Paths.of("...").segments());
+    assertEquals(Arrays.asList(".a"), Paths.of(".a").segments());
+    assertEquals(Arrays.asList("%2f"), Paths.of("%2f").segments());
+    assertEquals(Arrays.asList("%2e%2e%2e"), Paths.of("%2e%2e%2e").segments());
+  }
+
+  @Test public void parseRange() {
+    assertEquals(Paths.parse("/a/b%20c/"), Paths.parse("http://host/a/b%20c/?q", 11, 20));
+    assertEquals(Paths.parse("/b"), Paths.parse("/a/../b?q", 0, 7));
+    assertEquals(Paths.empty(), Paths.parse("/a", 1, 1));
+  }
+
   @Test public void removeDotSegments() {
     assertEquals(Arrays.asList(), Paths.of(".").segments());
     assertEquals(Arrays.asList(), Paths.of("..").segments());
@@ -45,6 +45,22 @@ public class PercentDecoderTest {
     assertSame("%2%", PercentDecoder.decodeAll("%2%"));
   }
 
+  @Test public void decodeRange() {
+    assertEquals("b c", PercentDecoder.decodeAll("a=b%20c&d", 2, 7));
+    assertEquals("b+c", PercentDecoder.decodeAll("a=b+c&d", 2, 5));
+    assertEquals("%2", PercentDecoder.decodeAll("a=%20", 2, 4));
+    assertEquals("", PercentDecoder.decodeAll("abc", 1, 1));
+  }
+
+  @Test public void decodeQueryComponent() {
+    assertEquals("b c", PercentDecoder.decodeQueryComponent("a=b+c&d", 2, 5));
+    assertEquals("b+c d", PercentDecoder.decodeQueryComponent("a=b%2Bc+d&", 2, 9));
+    assertEquals("❄ ❄", PercentDecoder.decodeQueryComponent("❄+%E2%9D%84", 0, 11));
+    // Without escapes, an unpaired surrogate survives; with them, UTF-8 replaces it by '?'.
+    assertEquals(" \uD800", PercentDecoder.decodeQueryComponent("+\uD800", 0, 2));
+    assertEquals("  ?", PercentDecoder.decodeQueryComponent("+%20\uD800", 0, 5));
+  }
+
   private String percentEncode(int c) {
     return String.format("%%%02X", c);
   }
@@ -0,0 +1,138 @@
+package org.urllib.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+import org.junit.Test;
+import org.urllib.Rejection;
+
+public class SplitIndexTest {
+
+  @Test public void offsetsPointIntoOriginalString() {
+    String url = "  HTTP://host:80/a/b?q=1#frag ";
+    SplitIndex index = SplitIndex.split(url);
+    assertSame(url, index.url());
+    assertEquals(Type.FULL, index.urlType());
+    assertEquals("HTTP", url.substring(index.schemeStart(), index.schemeEnd()));
+    assertEquals("host:80", url.substring(index.authorityStart(), index.authorityEnd()));
+    assertEquals("/a/b", url.substring(index.pathStart(), index.pathEnd()));
+    assertEquals("q=1", url.substring(index.queryStart(), index.queryEnd()));
+    assertEquals("frag", url.substring(index.fragmentStart(), index.fragmentEnd()));
+  }
+
+  @Test public void absentComponents() {
+    SplitIndex index = SplitIndex.split("http://host");
+    assertEquals(-1, index.pathStart());
+    assertEquals(-1, index.pathEnd());
+    assertEquals(-1, index.queryStart());
+    assertEquals(-1, index.fragmentStart());
+  }
+
+  @Test public void emptyComponentsArePresent() {
+    SplitIndex index = SplitIndex.split("http://host?#");
+    assertEquals(index.queryStart(), index.queryEnd());
+    assertEquals(index.fragmentStart(), index.fragmentEnd());
+    assertEquals(13, index.fragmentStart());
+  }
+
+  @Test public void agreesWithSplitUrl() {
+    String[] urls = {
+        "", " ", "/", "//", "///a", "\\\\host\\p", "?", "#", "p?q#f", "a:b", ":host",
+        "http:host", "http://\\host", "http://host?#", "http://host/p?q#f?#", "//host/p",
+        "bad@scheme://host", "mailto:me@host.com", "\thttps://h/❄?❄#❄\n",
+    };
+    for (String url : urls) {
+      SplitIndex index = SplitIndex.split(url);
+      SplitUrl split = SplitUrl.split(url);
+      assertEquals(url, split.urlType(), index.urlType());
+      assertEquals(url, split.authority(), substring(url, index.authorityStart(),
+          index.authorityEnd()));
+      assertEquals(url, split.path(), substring(url, index.pathStart(), index.pathEnd()));
+      assertEquals(url, split.query(), substring(url, index.queryStart(), index.queryEnd()));
+      assertEquals(url, split.fragment(), substring(url, index.fragmentStart(),
+          index.fragmentEnd()));
+    }
+  }
+
+  @Test public void sanitizeAndSplitDoesNotCopyWithoutLineBreaks() {
+    String url = " \thttp://host/p?q#f\r\n";
+    SplitIndex index = SplitIndex.sanitizeAndSplit(url, null);
+    assertSame(url, index.url());
+    assertEquals("host", url.substring(index.authorityStart(), index.authorityEnd()));
+    assertEquals("f", url.substring(index.fragmentStart(), index.fragmentEnd()));
+  }
+
+  @Test public void sanitizeAndSplitAgreesWithSanitizingFirst() {
+    String[] urls = {
+        "", " \n ", "http://host", "  http://host/p?q#f  ", "htt\np://host", "http:/\n/host",
+        "http://ho\r\n  st/p", "http://host/p\n?q", "http://host/p?q\n#f", "http://host#f\ng",
+        "\n\thttp://host\n", "//\n", "/\n/host",
+    };
+    for (String url : urls) {
+      String sanitized = Strings.sanitizeWhitespace(url);
+      SplitIndex expected = SplitIndex.split(sanitized);
+      SplitIndex index = SplitIndex.sanitizeAndSplit(url, null);
+      String indexed = index.url().toString();
+      assertEquals(url, expected.urlType(), index.urlType());
+      assertEquals(url, substring(sanitized, expected.authorityStart(), expected.authorityEnd()),
+          substring(indexed, index.authorityStart(), index.authorityEnd()));
+      assertEquals(url, substring(sanitized, expected.pathStart(), expected.pathEnd()),
+          substring(indexed, index.pathStart(), index.pathEnd()));
+      assertEquals(url, substring(sanitized, expected.queryStart(), expected.queryEnd()),
+          substring(indexed, index.queryStart(), index.queryEnd()));
+      assertEquals(url, substring(sanitized, expected.fragmentStart(), expected.fragmentEnd()),
+          substring(indexed, index.fragmentStart(), index.fragmentEnd()));
+    }
+  }
+
+  @Test public void sanitizeAndSplitReportsPositionInInput() {
+    ParseFailure failure = new ParseFailure();
+    assertNull(SplitIndex.sanitizeAndSplit(" http:/\n  / ", failure));
+    assertEquals(Rejection.MISSING_HOST, failure.reason());
+    assertEquals(11, failure.position());
+  }
+
+  @Test public void tableAgreesWithLoops() {
+    String alphabet = "aZ9+-.:/\\?#@ \t\n\r%ü[]";
+    Random random = new Random(0);
+    for (int n = 0; n < 100000; n++) {
+      char[] chars = new char[random.nextInt(n % 10 == 0 ? 40 : 12)];
+      for (int i = 0; i < chars.length; i++) {
+        chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+      }
+      String url = new String(chars);
+      byte[] utf8 = url.getBytes(StandardCharsets.UTF_8);
+      for (CharSequence input : new CharSequence[] {url, Utf8View.sanitize(utf8, 0, utf8.length)}) {
+        for (boolean sanitizing : new boolean[] {false, true}) {
+          ParseFailure loopFailure = new ParseFailure();
+          ParseFailure tableFailure = new ParseFailure();
+          String message = url + (sanitizing ? ", sanitizing" : "");
+          assertEquals(message,
+              describe(SplitIndex.splitWithLoops(input, loopFailure, sanitizing, null)),
+              describe(TableSplit.split(input, tableFailure, sanitizing, null)));
+          assertEquals(message, loopFailure.reason(), tableFailure.reason());
+          assertEquals(message, loopFailure.position(), tableFailure.position());
+        }
+      }
+    }
+  }
+
+  private static String describe(SplitIndex index) {
+    if (index == null) {
+      return null;
+    }
+    if (index == SplitIndex.LINE_BREAK) {
+      return "LINE_BREAK";
+    }
+    return index.urlType() + " " + index.schemeStart() + " " + index.schemeEnd() + " "
+        + index.authorityStart() + " " + index.authorityEnd() + " " + index.pathStart() + " "
+        + index.pathEnd() + " " + index.queryStart() + " " + index.queryEnd() + " "
+        + index.fragmentStart() + " " + index.fragmentEnd();
+  }
+
+  private static String substring(String url, int start, int end) {
+    return start == -1 ? null : url.substring(start, end);
+  }
+}
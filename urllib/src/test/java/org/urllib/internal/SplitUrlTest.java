@@ -25,6 +25,18 @@ public class SplitUrlTest {
   }
 
 
+  @Test public void charSequence() {
+    SplitUrl expected = SplitUrl.builder()
+        .scheme("http")
+        .authority("host")
+        .path("/a")
+        .query("q")
+        .fragment("f")
+        .urlType(Type.FULL)
+        .build();
+    assertEquals(expected, SplitUrl.split(new StringBuilder(" HTTP://host/a?q#f ")));
+  }
+
   @Test public void withScheme() {
     SplitUrl expected = SplitUrl.builder()
         .scheme("http")
@@ -3,6 +3,7 @@ package org.urllib.internal;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -32,4 +33,29 @@ public class StringsTest {
     assertEquals("a", Strings.sanitizeWhitespace("a\n  "));
   }
 
+  @Test public void sanitizeWhitespace_charSequence() {
+    String[] inputs = {"", "   ", " a  ", " a\nb  ", "a\n  b  c", "a\n  ", "abc", "\r\n❄\n❄"};
+    for (String input : inputs) {
+      CharSequence sanitized = Strings.sanitizeWhitespace(new StringBuilder(input));
+      assertEquals(input, Strings.sanitizeWhitespace(input), sanitized.toString());
+    }
+  }
+
+  @Test public void unsanitizedIndex() {
+    String[] inputs = {"abc", "  abc  ", " a\nb  ", "a\n  b  c", "a \r\n\t b\nc", "\r\n❄\n❄"};
+    for (String input : inputs) {
+      String sanitized = Strings.sanitizeWhitespace(input);
+      for (int i = 0; i < sanitized.length(); i++) {
+        assertEquals(input, sanitized.charAt(i), input.charAt(Strings.unsanitizedIndex(input, i)));
+      }
+      assertEquals(input, input.trim().length() + input.indexOf(input.trim()),
+          Strings.unsanitizedIndex(input, sanitized.length()));
+    }
+  }
+
+  @Test public void sanitizeWhitespace_charSequenceIsNotCopiedWhenClean() {
+    StringBuilder clean = new StringBuilder("http://host.com/");
+    assertSame(clean, Strings.sanitizeWhitespace(clean));
+  }
+
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package org.urllib.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+public class StripedCountersTest {
+
+  @Test public void sumsAcrossThreads() throws InterruptedException {
+    final StripedCounters counters = new StripedCounters(3);
+    Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread() {
+        @Override public void run() {
+          for (int j = 0; j < 10000; j++) {
+            counters.increment(j % 2 == 0 ? 0 : 2);
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertArrayEquals(new long[]{40000, 0, 40000}, counters.sum());
+  }
+}
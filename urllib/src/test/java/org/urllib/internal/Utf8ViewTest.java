@@ -0,0 +1,108 @@
+package org.urllib.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class Utf8ViewTest {
+
+  @Test public void oneCharPerByte() {
+    Utf8View view = view("a❄");
+    assertEquals(4, view.length());
+    assertEquals('a', view.charAt(0));
+    assertEquals(0xE2, view.charAt(1));
+    assertEquals("a❄", view.toString());
+    assertEquals("❄", view.subSequence(1, 4).toString());
+  }
+
+  @Test public void sanitizeMatchesStrings() {
+    String[] inputs = {"", " ", " \t a \n", "a\n \tb", "a\r\n\r\nb", "❄\n❄", "a \f b"};
+    for (String input : inputs) {
+      assertEquals(input, Strings.sanitizeWhitespace(input), view(input).toString());
+    }
+  }
+
+  @Test public void sanitizeSlice() {
+    byte[] bytes = "[ a\nb ]".getBytes(StandardCharsets.UTF_8);
+    assertEquals("ab", Utf8View.sanitize(bytes, 1, 5).toString());
+  }
+
+  @Test public void sanitizeReplacesMalformedLikeDecoder() {
+    Random random = new Random(0);
+    for (int n = 0; n < 200000; n++) {
+      // Printable ASCII or any high byte, so that nothing is trimmed or removed as whitespace.
+      byte[] bytes = new byte[1 + random.nextInt(12)];
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = (byte) (random.nextBoolean() ? 0x80 + random.nextInt(0x80) : 'a');
+      }
+      byte[] decoded = new String(bytes, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8);
+      Utf8View view = Utf8View.sanitize(bytes, 0, bytes.length);
+      assertEquals(Arrays.toString(bytes), Arrays.toString(decoded),
+          Arrays.toString(view.copyBytes(0, view.length())));
+      assertTrue(view.isWellFormed());
+    }
+  }
+
+  @Test public void isWellFormed() {
+    assertTrue(view("").isWellFormed());
+    assertTrue(view("long ascii run, then \u0080\u07ff\u0800\uffff\ud800\udc00\udbff\udfff")
+        .isWellFormed());
+    assertFalse(((Utf8View) view("a❄").subSequence(0, 3)).isWellFormed());
+    assertFalse(((Utf8View) view("a❄").subSequence(2, 4)).isWellFormed());
+  }
+
+  @Test public void sanitizeReplacesMalformedBeforeRemovingNewlines() {
+    byte[] bytes = {'a', (byte) 0xC3, '\n', (byte) 0xA9};
+    assertEquals("a\ufffd\ufffd", Utf8View.sanitize(bytes, 0, bytes.length).toString());
+  }
+
+  @Test public void indexOfAnyMatchesCharScan() {
+    String str = "host.com/❄❄/long-path-segment?query=value&x=❄#frag/ment?";
+    Utf8View view = view(str);
+    for (int from = 0; from <= view.length(); from++) {
+      for (int to = from; to <= view.length(); to++) {
+        assertEquals(indexOfAny(view, from, to, "/?#"),
+            view.indexOfAny(from, to, '/', '?', '#', '#'));
+        assertEquals(indexOfAny(view, from, to, "#"),
+            view.indexOfAny(from, to, '#', '#', '#', '#'));
+      }
+    }
+  }
+
+  @Test public void indexOfNonAsciiMatchesCharScan() {
+    Utf8View view = view("host.com/path/x❄y/long-ascii-segment?query=value&x=❄");
+    for (int from = 0; from <= view.length(); from++) {
+      for (int to = from; to <= view.length(); to++) {
+        int expected = from;
+        while (expected < to && view.charAt(expected) < 0x80) {
+          expected++;
+        }
+        assertEquals(expected, view.indexOfNonAscii(from, to));
+      }
+    }
+  }
+
+  @Test public void indexOfAnyInSubSequence() {
+    Utf8View view = (Utf8View) view("0123456789abcdef?0123456789").subSequence(3, 27);
+    assertEquals(13, view.indexOfAny(0, view.length(), '?', '?', '?', '?'));
+    assertEquals(24, view.indexOfAny(14, view.length(), '?', '?', '?', '?'));
+  }
+
+  private static int indexOfAny(CharSequence str, int from, int to, String chars) {
+    for (int i = from; i < to; i++) {
+      if (chars.indexOf(str.charAt(i)) != -1) {
+        return i;
+      }
+    }
+    return to;
+  }
+
+  private static Utf8View view(String str) {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    return Utf8View.sanitize(bytes, 0, bytes.length);
+  }
+}
@@ -74,4 +74,20 @@ public class AuthorityTest {
       assertThat(expected.getMessage(), containsString("Invalid port in authority."));
     }
   }
-}
\ No newline at end of file
+
+  @Test public void splitRange() {
+    Authority authority = Authority.split("http://user@host.com:90/path", 7, 23, null);
+    assertEquals("host.com", authority.host().name());
+    assertEquals(90, authority.port());
+    assertEquals(-1, Authority.split("//[::1]:/", 2, 8, null).port());
+  }
+
+  @Test public void splitRange_invalidPortMessageUnchanged() {
+    try {
+      Authority.split("//host:99999/", 2, 12, null);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected.getMessage(), containsString("Found: 99999"));
+    }
+  }
+}
@@ -29,6 +29,15 @@ public class HostsTest {
     assertInvalidHost("[:]");
   }
 
+  @Test public void labelsAreAtMost63Characters() {
+    String label = "abcdefghijklmnopqrstuvwxyzabcdefghijklmnopqrstuvwxyzabcdefghijk";
+    assertEquals(63, label.length());
+    assertEquals(label + ".com", Hosts.parse(label + ".com.").name());
+    assertEquals(label, Hosts.parse(label).name());
+    assertInvalidHost(label + "l.com");
+    assertInvalidHost("www." + label + "l");
+  }
+
   @Test public void convertToLowerCase() {
     assertEquals(Hosts.parse("example.com"), Hosts.parse("Example.com"));
     assertEquals(Hosts.parse("ökonom.de"), Hosts.parse("Ökonom.de"));
@@ -0,0 +1,101 @@
+package org.urllib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs against the packaged multi-release jar, where the Java 11 {@code Probe} emits JDK Flight
+ * Recorder events. Thresholds are removed so that every call is recorded.
+ */
+public class FlightRecorderIT {
+
+  private Recording recording;
+  private Path file;
+
+  @Before public void setUp() throws Exception {
+    recording = new Recording();
+    recording.enable("org.urllib.UrlOperation").withoutThreshold();
+    recording.enable("org.urllib.HostParse").withoutThreshold();
+    file = Files.createTempFile("urllib", ".jfr");
+  }
+
+  @After public void tearDown() throws Exception {
+    recording.close();
+    Files.delete(file);
+  }
+
+  @Test public void parseEmitsOperationAndHostEvents() throws Exception {
+    recording.start();
+    Urls.parse("http://host.com/path?q#f");
+    List<RecordedEvent> events = stop();
+
+    RecordedEvent host = only(events, "org.urllib.HostParse");
+    assertEquals(8, host.getInt("hostLength"));
+    assertEquals("DNS", host.getString("hostType"));
+    assertTrue(host.getBoolean("success"));
+
+    RecordedEvent operation = only(events, "org.urllib.UrlOperation");
+    assertEquals("PARSE", operation.getString("operation"));
+    assertEquals(24, operation.getInt("inputLength"));
+    assertEquals("DNS", operation.getString("hostType"));
+    assertTrue(operation.getBoolean("success"));
+  }
+
+  @Test public void failedParseEmitsUnsuccessfulEvents() throws Exception {
+    recording.start();
+    try {
+      Urls.parse("http://ho$t.com/");
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    List<RecordedEvent> events = stop();
+
+    assertFalse(only(events, "org.urllib.HostParse").getBoolean("success"));
+    RecordedEvent operation = only(events, "org.urllib.UrlOperation");
+    assertEquals("PARSE", operation.getString("operation"));
+    assertFalse(operation.getBoolean("success"));
+  }
+
+  @Test public void nothingIsEmittedWhileNotRecording() throws Exception {
+    Urls.parse("http://host.com/");
+    recording.start();
+    assertEquals(0, stop().size());
+  }
+
+  private List<RecordedEvent> stop() throws Exception {
+    recording.stop();
+    recording.dump(file);
+    List<RecordedEvent> events = new ArrayList<>();
+    for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+      if (event.getEventType().getName().startsWith("org.urllib.")) {
+        events.add(event);
+      }
+    }
+    return events;
+  }
+
+  private static RecordedEvent only(List<RecordedEvent> events, String name) {
+    RecordedEvent found = null;
+    for (RecordedEvent event : events) {
+      if (event.getEventType().getName().equals(name)) {
+        assertEquals("More than one " + name, null, found);
+        found = event;
+      }
+    }
+    assertTrue("No " + name + " in " + events, found != null);
+    return found;
+  }
+}
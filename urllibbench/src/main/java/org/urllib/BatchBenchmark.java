@@ -0,0 +1,51 @@
+package org.urllib;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link Urls#parseAll} against parsing the same batch one URL at a time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+  @Param({"100", "10000", "1000000"})
+  public int size;
+
+  String[] urls;
+
+  @Setup public void setUp() {
+    urls = UrlCorpus.generate(42, size);
+  }
+
+  @Benchmark public List<ParseResult<Url>> parseAll() {
+    return Urls.parseAll(urls);
+  }
+
+  @Benchmark public void loop(Blackhole bh) {
+    for (String url : urls) {
+      try {
+        bh.consume(Urls.parse(url));
+      } catch (IllegalArgumentException e) {
+        bh.consume(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package org.urllib;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parses a small set of accepted URLs over and over, as a proxy that sees the same hot URLs
+ * would, with and without a {@link UrlCache} large enough to hold them all.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheBenchmark {
+
+  private static final int SIZE = 2000;
+
+  private final String[] urls = new String[SIZE];
+  private final UrlCache cache = new UrlCache(4 * SIZE);
+
+  @Setup public void setUp() {
+    List<String> accepted = new ArrayList<>();
+    for (String url : UrlCorpus.generate(42, 4 * SIZE)) {
+      if (accepted.size() < SIZE && Urls.isValid(url)) {
+        accepted.add(url);
+      }
+    }
+    accepted.toArray(urls);
+  }
+
+  @TearDown public void tearDown() {
+    Urls.setCache(null);
+  }
+
+  @Benchmark @OperationsPerInvocation(SIZE) public void uncached(Blackhole blackhole) {
+    Urls.setCache(null);
+    for (String url : urls) {
+      blackhole.consume(Urls.parse(url));
+    }
+  }
+
+  @Benchmark @OperationsPerInvocation(SIZE) public void cached(Blackhole blackhole) {
+    Urls.setCache(cache);
+    for (String url : urls) {
+      blackhole.consume(Urls.parse(url));
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package org.urllib;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Runs {@link Urls#parse} and {@link Urls#escape} over a {@link UrlCorpus}, parsing from both
+ * Strings and UTF-8 bytes. Each operation handles one URL, so the primary score is URLs per
+ * second; the {@code bytes} counter reports the UTF-8 input consumed per second. Inputs that
+ * urllib rejects are counted too, since rejecting junk is part of the workload.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CorpusBenchmark {
+
+  @Param("1000000")
+  public int size;
+
+  @Param("42")
+  public long seed;
+
+  String[] urls;
+  byte[][] utf8;
+  int[] utf8Lengths;
+
+  @Setup public void setUp() {
+    urls = UrlCorpus.generate(seed, size);
+    utf8 = new byte[size][];
+    utf8Lengths = new int[size];
+    for (int i = 0; i < size; i++) {
+      utf8[i] = urls[i].getBytes(StandardCharsets.UTF_8);
+      utf8Lengths[i] = utf8[i].length;
+    }
+  }
+
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Throughput {
+    public long bytes;
+    public long rejected;
+    int next;
+
+    @Setup(Level.Iteration) public void reset() {
+      bytes = 0;
+      rejected = 0;
+    }
+
+    int next(CorpusBenchmark corpus) {
+      int i = next;
+      next = i + 1 == corpus.size ? 0 : i + 1;
+      bytes += corpus.utf8Lengths[i];
+      return i;
+    }
+  }
+
+  @Benchmark public void parse(Throughput throughput, Blackhole bh) {
+    int i = throughput.next(this);
+    try {
+      bh.consume(Urls.parse(urls[i]));
+    } catch (IllegalArgumentException e) {
+      throughput.rejected++;
+    }
+  }
+
+  @Benchmark public void parseUtf8(Throughput throughput, Blackhole bh) {
+    int i = throughput.next(this);
+    try {
+      bh.consume(Urls.parse(utf8[i], 0, utf8[i].length));
+    } catch (IllegalArgumentException e) {
+      throughput.rejected++;
+    }
+  }
+
+  /** The String round trip that {@link #parseUtf8} replaces. */
+  @Benchmark public void decodeThenParse(Throughput throughput, Blackhole bh) {
+    int i = throughput.next(this);
+    try {
+      bh.consume(Urls.parse(new String(utf8[i], StandardCharsets.UTF_8)));
+    } catch (IllegalArgumentException e) {
+      throughput.rejected++;
+    }
+  }
+
+  @Benchmark public void escape(Throughput throughput, Blackhole bh) {
+    int i = throughput.next(this);
+    try {
+      bh.consume(Urls.escape(urls[i]));
+    } catch (IllegalArgumentException e) {
+      throughput.rejected++;
+    }
+  }
+}
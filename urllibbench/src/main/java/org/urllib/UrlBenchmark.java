@@ -0,0 +1,84 @@
+package org.urllib;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the instance methods on a parsed {@link Url}, next to the equivalent
+ * operations on a {@link URI} built from the same input.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlBenchmark {
+
+  @Param({
+      "http://a/b/c/d;p?q",
+      "https://www.example.com/search/results/?q=urllib&page=2#top"
+  })
+  public String base;
+
+  @Param({
+      "g",
+      "../../g?y#s",
+      "//other.com/path",
+      "https://absolute.org/x"
+  })
+  public String reference;
+
+  private Url url;
+  private URI uri;
+
+  @Setup public void setUp() {
+    url = Urls.parse(base);
+    uri = url.uri();
+  }
+
+  @Benchmark public Url resolve() {
+    return url.resolve(reference);
+  }
+
+  @Benchmark public URI javaNetUriResolve() {
+    return uri.resolve(reference);
+  }
+
+  /**
+   * A {@link Url} parsed again before each call, so that {@link #urlToString} and {@link #uri}
+   * build their result rather than read the one memoized by the previous call.
+   */
+  @State(Scope.Thread)
+  public static class FreshUrl {
+    private Url url;
+
+    @Setup(Level.Invocation) public void setUp(UrlBenchmark benchmark) {
+      url = Urls.parse(benchmark.base);
+    }
+  }
+
+  @Benchmark public String urlToString(FreshUrl fresh) {
+    return fresh.url.toString();
+  }
+
+  @Benchmark public URI uri(FreshUrl fresh) {
+    return fresh.url.uri();
+  }
+
+  @Benchmark public String javaNetUriToString() {
+    return uri.toString();
+  }
+}
@@ -0,0 +1,49 @@
+package org.urllib;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link UrlBuilder#create()} against the multi-argument {@link URI} constructor,
+ * which quotes illegal characters much like the builder does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlBuilderBenchmark {
+
+  private final Map<String, String> query = new LinkedHashMap<>();
+
+  {
+    query.put("q", "π²");
+    query.put("lang", "en us");
+  }
+
+  @Benchmark public Url create() {
+    return Urls.https("www.wolframalpha.com:8443")
+        .path("input", "index.html")
+        .query(query)
+        .fragment("results")
+        .create();
+  }
+
+  @Benchmark public URI javaNetUri() throws URISyntaxException {
+    return new URI("https", null, "www.wolframalpha.com", 8443, "/input/index.html",
+        "q=π²&lang=en us", "results");
+  }
+}
@@ -0,0 +1,271 @@
+package org.urllib;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates a reproducible corpus of URLs shaped like crawler and proxy traffic:
+ *
+ * <ul>
+ * <li>Hosts follow a Zipf distribution, so a few hosts dominate and most are rare.</li>
+ * <li>The host pool mixes ASCII DNS, IDN, IPv4 and IPv6 hosts.</li>
+ * <li>Paths contain dot segments, backslashes, non-ASCII text and percent-encoded junk.</li>
+ * <li>Queries range from a single key to long tracking strings.</li>
+ * <li>Some URLs carry leading, trailing or embedded whitespace and line breaks, as when
+ * they are copied out of emails or logs.</li>
+ * </ul>
+ *
+ * <p>The same seed always yields the same corpus.
+ */
+public final class UrlCorpus {
+
+  private static final String[] TLDS = {
+      "com", "com", "com", "org", "net", "de", "co.uk", "ru", "io", "jp"
+  };
+  private static final String[] IDN_LABELS = {
+      "bücher", "münchen", "кот", "пример", "例子",
+      "テスト", "δοκιμή", "❄", "ökonom", "καφέ"
+  };
+  private static final String[] WORDS = {
+      "index", "search", "products", "item", "wiki", "news", "2017", "images", "api", "v1",
+      "user", "profile", "cart", "checkout", "article", "category", "static", "js", "css",
+      "download", "page", "en-us", "blog", "tag", "video"
+  };
+  private static final String[] UNICODE_WORDS = {
+      "Búðardalur", "café", "naïve", "кот", "東京", "π²", "❄", "🐶", "straße"
+  };
+  private static final String[] EXTENSIONS = {
+      "", "", "", ".html", ".php", ".jpg", ".png", ".js", ".pdf"
+  };
+  private static final String[] JUNK = {
+      "%", "%%", "%zz", "%2", "%E2%9D%84", "%2e", "%2E%2e", "%00", "%7Efile", "%%25", "a%20b"
+  };
+  private static final String[] TRACKING_KEYS = {
+      "utm_source", "utm_medium", "utm_campaign", "utm_term", "utm_content", "gclid", "fbclid",
+      "mc_cid", "mc_eid", "_ga", "ref", "sessionid"
+  };
+  private static final String[] WHITESPACE = {" ", "\t", "\n", "\r\n", "\f", "  "};
+  private static final char[] BASE64 =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+  private final Random random;
+  private final String[] hosts;
+  private final double[] cumulative;
+
+  /**
+   * @param seed seeds every random choice made by the generator.
+   * @param distinctHosts size of the host pool that the Zipf distribution draws from.
+   */
+  public UrlCorpus(long seed, int distinctHosts) {
+    this.random = new Random(seed);
+    this.hosts = new String[distinctHosts];
+    this.cumulative = new double[distinctHosts];
+    double sum = 0;
+    for (int i = 0; i < distinctHosts; i++) {
+      hosts[i] = host();
+      sum += 1.0 / (i + 1);
+      cumulative[i] = sum;
+    }
+    for (int i = 0; i < distinctHosts; i++) {
+      cumulative[i] /= sum;
+    }
+  }
+
+  public static String[] generate(long seed, int count) {
+    UrlCorpus corpus = new UrlCorpus(seed, 10000);
+    String[] urls = new String[count];
+    for (int i = 0; i < count; i++) {
+      urls[i] = corpus.next();
+    }
+    return urls;
+  }
+
+  /**
+   * Writes a newline-delimited corpus to stdout.
+   *
+   * <pre>{@code java -cp benchmarks.jar org.urllib.UrlCorpus <seed> <count> > urls.txt}</pre>
+   */
+  public static void main(String[] args) throws IOException {
+    long seed = args.length > 0 ? Long.parseLong(args[0]) : 0;
+    int count = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+    UrlCorpus corpus = new UrlCorpus(seed, 10000);
+    try (Writer out =
+        new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+      for (int i = 0; i < count; i++) {
+        // Line breaks inside a URL would split it across lines.
+        out.write(corpus.next().replaceAll("[\r\n]", ""));
+        out.write('\n');
+      }
+    }
+  }
+
+  public String next() {
+    StringBuilder sb = new StringBuilder(128);
+    sb.append(chance(0.6) ? "https" : chance(0.05) ? "HTTP" : "http");
+    sb.append(chance(0.02) ? ":\\\\" : "://");
+    if (chance(0.01)) {
+      sb.append("user:pass@");
+    }
+    sb.append(zipfHost());
+    if (chance(0.05)) {
+      sb.append(':').append(chance(0.5) ? 8080 : 1 + random.nextInt(65535));
+    }
+    path(sb);
+    if (chance(0.6)) {
+      sb.append('?');
+      query(sb);
+    }
+    if (chance(0.1)) {
+      sb.append('#').append(pick(WORDS));
+      if (chance(0.2)) {
+        sb.append('-').append(pick(UNICODE_WORDS));
+      }
+    }
+    return noise(sb.toString());
+  }
+
+  private String zipfHost() {
+    int i = Arrays.binarySearch(cumulative, random.nextDouble());
+    return hosts[Math.min(i < 0 ? -i - 1 : i, hosts.length - 1)];
+  }
+
+  private String host() {
+    double r = random.nextDouble();
+    if (r < 0.85) {
+      StringBuilder sb = new StringBuilder();
+      if (chance(0.5)) {
+        sb.append(chance(0.8) ? "www." : "cdn" + random.nextInt(10) + '.');
+      }
+      sb.append(label()).append('.').append(pick(TLDS));
+      return chance(0.05) ? sb.toString().toUpperCase() : sb.toString();
+    } else if (r < 0.90) {
+      return pick(IDN_LABELS) + (chance(0.5) ? "." + pick(IDN_LABELS) : "") + '.' + pick(TLDS);
+    } else if (r < 0.95) {
+      return (1 + random.nextInt(254)) + "." + random.nextInt(256) + '.'
+          + random.nextInt(256) + '.' + (1 + random.nextInt(254));
+    } else {
+      StringBuilder sb = new StringBuilder("[2001:db8");
+      int groups = chance(0.5) ? 6 : 2;
+      if (groups == 2) {
+        sb.append(':');
+      }
+      for (int i = 0; i < groups; i++) {
+        sb.append(':').append(Integer.toHexString(random.nextInt(0x10000)));
+      }
+      return sb.append(']').toString();
+    }
+  }
+
+  private String label() {
+    StringBuilder sb = new StringBuilder();
+    int length = 3 + random.nextInt(12);
+    for (int i = 0; i < length; i++) {
+      if (i > 0 && i < length - 1 && chance(0.05)) {
+        sb.append('-');
+      } else {
+        sb.append((char) ('a' + random.nextInt(26)));
+      }
+    }
+    return sb.toString();
+  }
+
+  private void path(StringBuilder sb) {
+    int segments = random.nextInt(7);
+    char slash = chance(0.02) ? '\\' : '/';
+    if (segments == 0) {
+      if (chance(0.7)) {
+        sb.append(slash);
+      }
+      return;
+    }
+    for (int i = 0; i < segments; i++) {
+      sb.append(slash);
+      double r = random.nextDouble();
+      if (r < 0.05) {
+        sb.append("..");
+      } else if (r < 0.07) {
+        sb.append('.');
+      } else if (r < 0.12) {
+        sb.append(pick(WORDS)).append(pick(JUNK));
+      } else if (r < 0.15) {
+        sb.append(pick(UNICODE_WORDS));
+      } else if (r < 0.17) {
+        sb.append(pick(WORDS)).append(' ').append(pick(WORDS));
+      } else {
+        sb.append(pick(WORDS));
+      }
+    }
+    if (chance(0.3)) {
+      sb.append(slash);
+    } else {
+      sb.append(pick(EXTENSIONS));
+    }
+  }
+
+  private void query(StringBuilder sb) {
+    if (chance(0.25)) {
+      // Long tracking query, as appended by ad and mail campaigns.
+      int params = 5 + random.nextInt(16);
+      for (int i = 0; i < params; i++) {
+        if (i > 0) {
+          sb.append('&');
+        }
+        sb.append(pick(TRACKING_KEYS)).append('=');
+        token(sb, 8 + random.nextInt(80));
+      }
+      return;
+    }
+    int params = 1 + random.nextInt(4);
+    for (int i = 0; i < params; i++) {
+      if (i > 0) {
+        sb.append('&');
+      }
+      sb.append(pick(WORDS));
+      double r = random.nextDouble();
+      if (r < 0.1) {
+        continue;
+      }
+      sb.append('=');
+      if (r < 0.2) {
+        sb.append(pick(UNICODE_WORDS));
+      } else if (r < 0.3) {
+        sb.append(pick(WORDS)).append(chance(0.5) ? '+' : ' ').append(pick(WORDS));
+      } else if (r < 0.35) {
+        sb.append(pick(JUNK));
+      } else {
+        token(sb, 1 + random.nextInt(12));
+      }
+    }
+  }
+
+  private void token(StringBuilder sb, int length) {
+    for (int i = 0; i < length; i++) {
+      sb.append(BASE64[random.nextInt(BASE64.length)]);
+    }
+  }
+
+  private String noise(String url) {
+    double r = random.nextDouble();
+    if (r < 0.03) {
+      return pick(WHITESPACE) + url + pick(WHITESPACE);
+    } else if (r < 0.05) {
+      int at = 8 + random.nextInt(url.length() - 8);
+      return url.substring(0, at) + (chance(0.5) ? "\n" : "\r\n")
+          + (chance(0.5) ? "  " : "\t") + url.substring(at);
+    }
+    return url;
+  }
+
+  private boolean chance(double probability) {
+    return random.nextDouble() < probability;
+  }
+
+  private String pick(String[] choices) {
+    return choices[random.nextInt(choices.length)];
+  }
+}
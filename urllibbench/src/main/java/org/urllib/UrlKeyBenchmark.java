@@ -0,0 +1,65 @@
+package org.urllib;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Looks up URLs in a {@link HashSet} of URLs parsed from the same inputs, as a caller that
+ * keys a map by {@link Url} does. Every lookup is for an equal but distinct instance, so each
+ * hits {@code equals}; half the inputs are in the set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlKeyBenchmark {
+
+  private static final int SIZE = 2000;
+
+  private final Set<Url> set = new HashSet<>();
+  private final Set<Url> compactSet = new HashSet<>();
+  private final Url[] urls = new Url[SIZE];
+  private final Url[] compactUrls = new Url[SIZE];
+
+  @Setup public void setUp() {
+    int n = 0;
+    for (String url : UrlCorpus.generate(42, 4 * SIZE)) {
+      if (n < SIZE && Urls.isValid(url)) {
+        urls[n] = Urls.parse(url);
+        compactUrls[n] = Urls.compact(Urls.parse(url));
+        if (n % 2 == 0) {
+          set.add(Urls.parse(url));
+          compactSet.add(Urls.compact(Urls.parse(url)));
+        }
+        n++;
+      }
+    }
+  }
+
+  @Benchmark @OperationsPerInvocation(SIZE) public void contains(Blackhole blackhole) {
+    for (Url url : urls) {
+      blackhole.consume(set.contains(url));
+    }
+  }
+
+  @Benchmark @OperationsPerInvocation(SIZE) public void containsCompact(Blackhole blackhole) {
+    for (Url url : compactUrls) {
+      blackhole.consume(compactSet.contains(url));
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package org.urllib;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the static entry points on {@link Urls}. The {@code javaNetUri} baseline parses the
+ * already-escaped form of the same input, since {@link URI} rejects most of the raw inputs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlsBenchmark {
+
+  @Param({
+      "http://host.com/",
+      "https://www.example.com/search/results?q=urllib&page=2#top",
+      "http://user:pass@[2001:db8::1]:8080/a/b/../c/%7Efile.html?k=v&k2",
+      "https://bücher.de/❄/index.html?q=❄",
+      " http:\\\\host.com\\path\\with spaces?q=a b|c#frag\n"
+  })
+  public String url;
+
+  private String escaped;
+
+  @Setup public void setUp() {
+    escaped = Urls.escape(url);
+  }
+
+  @Benchmark public Url parse() {
+    return Urls.parse(url);
+  }
+
+  @Benchmark public String escape() {
+    return Urls.escape(url);
+  }
+
+  @Benchmark public URI createURI() {
+    return Urls.createURI(url);
+  }
+
+  @Benchmark public URI javaNetUri() throws URISyntaxException {
+    return new URI(escaped);
+  }
+}
@@ -0,0 +1,93 @@
+package org.urllib.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.urllib.UrlCorpus;
+
+/**
+ * Measures {@link SplitIndex#split} and {@link SplitIndex#sanitizeAndSplit} over a
+ * {@link UrlCorpus}. Inputs that are rejected for a missing host are skipped. The {@code Utf8}
+ * variant splits the UTF-8 bytes, where long components are skipped a word at a time.
+ *
+ * <p>Each {@code Table} variant runs the same code in a fork with {@code -Durllib.splitTable=true},
+ * which has {@link SplitIndex} use {@link TableSplit} instead of its loops.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SplitBenchmark {
+
+  private static final int SIZE = 10000;
+  private static final String TABLE = "-Durllib.splitTable=true";
+
+  @Param("42")
+  public long seed;
+
+  private String[] urls;
+  private Utf8View[] utf8;
+
+  @Setup public void setUp() {
+    urls = UrlCorpus.generate(seed, SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      try {
+        SplitIndex.split(urls[i]);
+      } catch (IllegalArgumentException e) {
+        urls[i] = "";
+      }
+    }
+    utf8 = new Utf8View[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      byte[] bytes = urls[i].getBytes(StandardCharsets.UTF_8);
+      utf8[i] = Utf8View.sanitize(bytes, 0, bytes.length);
+    }
+  }
+
+  @Benchmark @OperationsPerInvocation(SIZE) public void split(Blackhole blackhole) {
+    for (String url : urls) {
+      blackhole.consume(SplitIndex.split(url));
+    }
+  }
+
+  @Benchmark @OperationsPerInvocation(SIZE) public void splitUtf8(Blackhole blackhole) {
+    for (Utf8View url : utf8) {
+      blackhole.consume(SplitIndex.split(url));
+    }
+  }
+
+  @Benchmark @OperationsPerInvocation(SIZE) public void sanitizeAndSplit(Blackhole blackhole) {
+    for (String url : urls) {
+      blackhole.consume(SplitIndex.sanitizeAndSplit(url, null));
+    }
+  }
+
+  @Benchmark @OperationsPerInvocation(SIZE) @Fork(value = 1, jvmArgsAppend = TABLE)
+  public void splitTable(Blackhole blackhole) {
+    split(blackhole);
+  }
+
+  @Benchmark @OperationsPerInvocation(SIZE) @Fork(value = 1, jvmArgsAppend = TABLE)
+  public void splitUtf8Table(Blackhole blackhole) {
+    splitUtf8(blackhole);
+  }
+
+  @Benchmark @OperationsPerInvocation(SIZE) @Fork(value = 1, jvmArgsAppend = TABLE)
+  public void sanitizeAndSplitTable(Blackhole blackhole) {
+    sanitizeAndSplit(blackhole);
+  }
+}
@@ -0,0 +1,66 @@
+package org.urllib.internal.authority;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.urllib.Host;
+
+/**
+ * Measures {@link Hosts#parse} and {@link Authority#split} for each family of host, next to
+ * the host that {@link URI} parses from a URL with the same authority.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HostsBenchmark {
+
+  public enum Family {
+    DNS("www.Example.co.uk"),
+    IDN("Bücher.例子.de"),
+    IPV4("192.168.100.254"),
+    IPV6("[2001:DB8:0:0:8:800:200C:417A]");
+
+    final String host;
+
+    Family(String host) {
+      this.host = host;
+    }
+  }
+
+  @Param public Family family;
+
+  private String authority;
+  private String url;
+
+  @Setup public void setUp() {
+    authority = "user@" + family.host + ":8080";
+    url = "http://" + authority + "/";
+  }
+
+  @Benchmark public Host parse() {
+    return Hosts.parse(family.host);
+  }
+
+  @Benchmark public Authority split() {
+    return Authority.split(authority);
+  }
+
+  @Benchmark public String javaNetUriHost() throws URISyntaxException {
+    // Null for the IDN, which URI accepts only as a registry-based authority.
+    return new URI(url).getHost();
+  }
+}
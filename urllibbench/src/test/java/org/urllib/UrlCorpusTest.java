@@ -0,0 +1,40 @@
+package org.urllib;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class UrlCorpusTest {
+
+  @Test public void sameSeedSameCorpus() {
+    assertArrayEquals(UrlCorpus.generate(7, 1000), UrlCorpus.generate(7, 1000));
+    assertFalse(Arrays.equals(UrlCorpus.generate(7, 1000), UrlCorpus.generate(8, 1000)));
+  }
+
+  @Test public void mostUrlsParse() {
+    String[] urls = UrlCorpus.generate(42, 10000);
+    int parsed = 0;
+    Map<String, Integer> hosts = new HashMap<>();
+    for (String url : urls) {
+      try {
+        String host = Urls.parse(url).host().name();
+        Integer count = hosts.get(host);
+        hosts.put(host, count == null ? 1 : count + 1);
+        parsed++;
+      } catch (IllegalArgumentException ignored) {
+      }
+    }
+    assertTrue("parsed " + parsed, parsed > urls.length * 0.95);
+    // Zipf: the most popular host is far more common than the average.
+    int max = 0;
+    for (int count : hosts.values()) {
+      max = Math.max(max, count);
+    }
+    assertTrue("max " + max, max > 10 * parsed / hosts.size());
+  }
+}
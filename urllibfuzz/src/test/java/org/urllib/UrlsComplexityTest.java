@@ -0,0 +1,214 @@
+package org.urllib;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.Random;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Feeds adversarial inputs of increasing length to urllib and fails if the time per character
+ * grows super-linearly. Inputs are built by repeating a short atom chosen to stress one part of
+ * the parser, e.g. {@code "../"} for dot-segment removal.
+ *
+ * <p>The assertions depend on wall-clock time and take a while, so the test only runs when
+ * {@code -Durllib.complexity=true} is set, which the {@code complexity} profile does. Random atoms
+ * are drawn from a fixed seed unless {@code -Durllib.complexity.seed} gives another; failures
+ * report the seed.
+ */
+public class UrlsComplexityTest {
+
+  private static final int SMALL = 1 << 12;
+  private static final int LARGE = 1 << 16;
+
+  // Linear code sees a growth near 1. Quadratic code would see 16 for these sizes.
+  private static final double MAX_GROWTH = 3;
+
+  private static final int WARMUP = 20;
+  private static final int RUNS = 5;
+  private static final int ATTEMPTS = 3;
+
+  private static final String[] ATOMS = {
+      "%", "%%", "%2", "%zz", "%41", "%2e", "../", "./", "..\\", "%2e%2E/", "//", "\\",
+      ":", "::", "1:", "@", "[", "]", "&", "=", "&=", "?", "#", ".", "a.", "1.",
+      "\n", "\r\n\t", " ", "\t", "ü", "❄", "\u00AD", "+", ";",
+  };
+
+  private static final String[] PREFIXES = {
+      "http://", "http://host.com/", "http://host.com/?", "http://host.com/#", "http://[",
+      "http://host.com:", "http:\\\\", "",
+  };
+
+  private static final long SEED = Long.getLong("urllib.complexity.seed", 0x5EED);
+
+  @BeforeClass public static void enabled() {
+    assumeTrue(Boolean.getBoolean("urllib.complexity"));
+  }
+
+  @Test public void percentRuns() {
+    assertLinear("http://host.com/", "%", "");
+    assertLinear("http://host.com/?", "%", "");
+    assertLinear("http://host.com/#", "%", "");
+    assertLinear("http://host.com/", "%2", "");
+    assertLinear("http://", "%41", ".com");
+  }
+
+  @Test public void dotSegments() {
+    assertLinear("http://host.com/", "../", "");
+    assertLinear("http://host.com/a", "/.", "");
+    assertLinear("http://host.com/", "%2e%2E/", "");
+    assertLinear("http://host.com/", "a/../", "");
+    assertLinear("http:\\\\host.com\\", "..\\", "");
+  }
+
+  @Test public void colons() {
+    assertLinear("http://", ":", "");
+    assertLinear("http://", ":", "host");
+    assertLinear("http://[", "1:", "]");
+    assertLinear("http://[", "::", "]");
+    assertLinear("http://", "a:", "@host.com");
+    assertLinear("http://", "@", "host.com:80");
+  }
+
+  @Test public void queries() {
+    assertLinear("http://host.com/?", "&=", "");
+    assertLinear("http://host.com/?", "=&", "");
+    assertLinear("http://host.com/?", "a=b&", "");
+    assertLinear("http://host.com/?", "=", "");
+    assertLinear("http://host.com/?", "+", "");
+  }
+
+  @Test public void whitespace() {
+    assertLinear("", " ", "http://host.com");
+    assertLinear("http://host.com", " ", "");
+    assertLinear("http://", "\n ", "host.com");
+    assertLinear("http://host.com/", "\r\n\t", "a");
+    assertLinear("http://host.com/", "a\n", "");
+  }
+
+  @Test public void hosts() {
+    assertLinear("http://", "a", "");
+    assertLinear("http://", "a.", "com");
+    assertLinear("http://", "1.", "1");
+    assertLinear("http://", "ü", "");
+    assertLinear("http://", "\u00AD", "a");
+    assertLinear("http://", "/", "host");
+  }
+
+  @Test public void resolveDotSegments() {
+    final Url base = Urls.parse("http://host.com/a/b/c");
+    Operation resolve = new Operation("resolve") {
+      @Override void run(String input) {
+        base.resolve(input);
+      }
+    };
+    assertLinear(resolve, "", "../", "");
+    assertLinear(resolve, "", "./", "g");
+    assertLinear(resolve, "?", "&=", "");
+  }
+
+  @Test public void randomAtoms() {
+    Random random = new Random(SEED);
+    for (int i = 0; i < 20; i++) {
+      StringBuilder atom = new StringBuilder();
+      for (int j = 1 + random.nextInt(3); j > 0; j--) {
+        atom.append(ATOMS[random.nextInt(ATOMS.length)]);
+      }
+      String prefix = PREFIXES[random.nextInt(PREFIXES.length)];
+      String message = "seed " + SEED + ", iteration " + i;
+      assertLinear(PARSE, prefix, atom.toString(), "", message);
+      assertLinear(ESCAPE, prefix, atom.toString(), "", message);
+    }
+  }
+
+  private static void assertLinear(String prefix, String atom, String suffix) {
+    assertLinear(PARSE, prefix, atom, suffix);
+    assertLinear(ESCAPE, prefix, atom, suffix);
+  }
+
+  private static void assertLinear(Operation operation, String prefix, String atom,
+      String suffix) {
+    assertLinear(operation, prefix, atom, suffix, "");
+  }
+
+  private static void assertLinear(Operation operation, String prefix, String atom,
+      String suffix, String message) {
+    String small = input(prefix, atom, suffix, SMALL);
+    String large = input(prefix, atom, suffix, LARGE);
+    // Time the small input in batches covering as many characters as the large one, so that
+    // inputs rejected after a few characters are not lost in timer noise.
+    int batch = large.length() / small.length();
+    for (int i = 0; i < WARMUP; i++) {
+      operation.time(small, batch);
+    }
+    // A collection during the large run can look like super-linear growth, so measure again
+    // before failing. Genuinely super-linear code fails every attempt.
+    double growth = Double.MAX_VALUE;
+    for (int attempt = 0; attempt < ATTEMPTS && growth > MAX_GROWTH; attempt++) {
+      double smallPerChar =
+          (double) bestTime(operation, small, batch) / (batch * small.length());
+      double largePerChar = (double) bestTime(operation, large, 1) / large.length();
+      growth = largePerChar / smallPerChar;
+    }
+    assertTrue(String.format("%s(%s + %s * n + %s): time per char grew %.1fx from %d to %d chars."
+            + " %s", operation.name, escapeJava(prefix), escapeJava(atom), escapeJava(suffix),
+        growth, small.length(), large.length(), message),
+        growth <= MAX_GROWTH);
+  }
+
+  private static long bestTime(Operation operation, String input, int batch) {
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < RUNS; i++) {
+      best = Math.min(best, operation.time(input, batch));
+    }
+    return best;
+  }
+
+  private static String input(String prefix, String atom, String suffix, int length) {
+    StringBuilder sb = new StringBuilder(length + atom.length() + prefix.length());
+    sb.append(prefix);
+    while (sb.length() < length) {
+      sb.append(atom);
+    }
+    return sb.append(suffix).toString();
+  }
+
+  private static String escapeJava(String s) {
+    return s.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t");
+  }
+
+  private static final Operation PARSE = new Operation("parse") {
+    @Override void run(String input) {
+      Urls.parse(input);
+    }
+  };
+
+  private static final Operation ESCAPE = new Operation("escape") {
+    @Override void run(String input) {
+      Urls.escape(input);
+    }
+  };
+
+  private abstract static class Operation {
+    final String name;
+
+    Operation(String name) {
+      this.name = name;
+    }
+
+    abstract void run(String input);
+
+    long time(String input, int batch) {
+      long start = System.nanoTime();
+      for (int i = 0; i < batch; i++) {
+        try {
+          run(input);
+        } catch (IllegalArgumentException rejected) {
+          // Rejecting junk must be linear too.
+        }
+      }
+      return System.nanoTime() - start;
+    }
+  }
+}
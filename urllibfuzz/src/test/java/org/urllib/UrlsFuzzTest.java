@@ -1,8 +1,11 @@
 package org.urllib;
 
+import static org.junit.Assert.assertEquals;
+
 import java.util.Random;
 import org.apache.commons.text.RandomStringGenerator;
 import org.junit.Test;
+import org.urllib.internal.InvalidUrlException;
 
 public class UrlsFuzzTest {
 
@@ -14,6 +17,7 @@ public class UrlsFuzzTest {
       new RandomStringGenerator.Builder().withinRange(0x00, 0x7F).build();
   private static final RandomStringGenerator ASCII_PRINTABLE =
       new RandomStringGenerator.Builder().withinRange(0x20, 0x7E).build();
+  private static final String AUTHORITY_CHARS = "aZ09.-:@[]%2e \n/❄";
 
   @Test public void minimalEscape() {
     for (int i = 0; i < RUN_LEN; i++) {
@@ -32,4 +36,92 @@ public class UrlsFuzzTest {
       Urls.createURI("http://host.com/" + ASCII_PRINTABLE.generate(length));
     }
   }
+
+  @Test public void validationAgreesWithParse() {
+    for (int i = 0; i < RUN_LEN; i++) {
+      int length = RAND.nextInt(20);
+      assertAgrees("http://" + UNFILTERED.generate(length));
+      assertAgrees("http://" + ASCII.generate(length));
+      assertAgrees("http://" + ASCII_PRINTABLE.generate(length));
+      assertAgrees("http://" + authority(length));
+      assertAgrees(ASCII_PRINTABLE.generate(length));
+    }
+  }
+
+  @Test public void parserAgreesWithParse() {
+    UrlParser parser = new UrlParser();
+    for (int i = 0; i < RUN_LEN; i++) {
+      int length = RAND.nextInt(20);
+      assertParserAgrees(parser, "http://host.com/" + UNFILTERED.generate(length));
+      assertParserAgrees(parser, "http://host.com/" + ASCII_PRINTABLE.generate(length));
+      assertParserAgrees(parser, "http://host.com/" + escapes(length));
+      assertParserAgrees(parser, "http://" + authority(length));
+    }
+  }
+
+  @Test public void compactEqualsParse() {
+    for (int i = 0; i < RUN_LEN; i++) {
+      int length = RAND.nextInt(20);
+      assertCompactAgrees("http://host.com/" + UNFILTERED.generate(length));
+      assertCompactAgrees("http://host.com/" + ASCII_PRINTABLE.generate(length));
+      assertCompactAgrees("http://host.com/" + escapes(length));
+      assertCompactAgrees("http://" + authority(length));
+    }
+  }
+
+  private static String escapes(int length) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      sb.append(RAND.nextBoolean() ? '%' : (char) ('a' + RAND.nextInt(26)));
+      sb.append(Integer.toHexString(RAND.nextInt(256)));
+    }
+    return sb.toString();
+  }
+
+  private static String authority(int length) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      sb.append(AUTHORITY_CHARS.charAt(RAND.nextInt(AUTHORITY_CHARS.length())));
+    }
+    return sb.toString();
+  }
+
+  private static void assertAgrees(String url) {
+    Rejection expected = null;
+    try {
+      Urls.parse(url);
+    } catch (InvalidUrlException e) {
+      expected = e.reason();
+    }
+    assertEquals(url, expected, Urls.tryParse(url).rejection());
+    assertEquals(url, expected == null, Urls.isValid(url));
+  }
+
+  private static void assertCompactAgrees(String input) {
+    Url url;
+    try {
+      url = Urls.parse(input);
+    } catch (InvalidUrlException e) {
+      return;
+    }
+    Url compact = Urls.compact(url);
+    assertEquals(input, url, compact);
+    assertEquals(input, url.toString(), compact.toString());
+  }
+
+  private static void assertParserAgrees(UrlParser parser, String url) {
+    Url expected;
+    try {
+      expected = Urls.parse(url);
+    } catch (InvalidUrlException e) {
+      try {
+        parser.parse(url);
+      } catch (InvalidUrlException actual) {
+        assertEquals(url, e.reason(), actual.reason());
+        return;
+      }
+      throw new AssertionError("Expected " + url + " to be rejected");
+    }
+    assertEquals(url, expected, parser.parse(url).toImmutable());
+  }
 }
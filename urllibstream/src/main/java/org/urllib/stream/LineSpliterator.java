@@ -0,0 +1,131 @@
+package org.urllib.stream;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import org.urllib.Url;
+import org.urllib.Urls;
+import org.urllib.stream.MappedUrlFile.BadLine;
+
+/**
+ * Parses the lines in {@code segments[fromSeg, toSeg)}, starting at {@code pos} in the first
+ * segment and stopping at {@code end} in the last. Every boundary, whether between segments or
+ * made by {@link #trySplit}, falls just after a newline.
+ */
+final class LineSpliterator implements Spliterator<Url> {
+
+  // Used to turn remaining bytes into a line count for estimateSize().
+  private static final int TYPICAL_LINE = 64;
+
+  private final MappedByteBuffer[] segments;
+  private final long[] offsets;
+  private final Consumer<? super BadLine> badLines;
+  private int fromSeg;
+  private int toSeg;
+  private int pos;
+  private int end;
+
+  // A duplicate of segments[fromSeg] whose position and limit are moved from line to line.
+  private ByteBuffer line;
+
+  LineSpliterator(MappedByteBuffer[] segments, long[] offsets, int fromSeg, int toSeg, int pos,
+      int end, Consumer<? super BadLine> badLines) {
+    this.segments = segments;
+    this.offsets = offsets;
+    this.fromSeg = fromSeg;
+    this.toSeg = toSeg;
+    this.pos = pos;
+    this.end = end;
+    this.badLines = badLines;
+  }
+
+  @Override public boolean tryAdvance(Consumer<? super Url> action) {
+    while (fromSeg < toSeg) {
+      int limit = fromSeg == toSeg - 1 ? end : segments[fromSeg].limit();
+      if (pos >= limit) {
+        fromSeg++;
+        pos = 0;
+        line = null;
+        continue;
+      }
+      if (line == null) {
+        line = segments[fromSeg].duplicate();
+      }
+
+      int start = pos;
+      int stop = start;
+      boolean blank = true;
+      for (byte b; stop < limit && (b = line.get(stop)) != '\n'; stop++) {
+        blank &= b == ' ' || b == '\t' || b == '\f' || b == '\r';
+      }
+      pos = stop + 1;
+      if (blank) {
+        continue;
+      }
+
+      // Cast so that Java 9's covariant overrides aren't linked against.
+      ((Buffer) line).limit(stop).position(start);
+      Url url;
+      try {
+        url = Urls.parse(line);
+      } catch (IllegalArgumentException e) {
+        byte[] utf8 = new byte[stop - start];
+        line.get(utf8);
+        ((Buffer) line).clear();
+        badLines.accept(new BadLine(offsets[fromSeg] + start, utf8, e));
+        continue;
+      }
+      ((Buffer) line).clear();
+      action.accept(url);
+      return true;
+    }
+    return false;
+  }
+
+  @Override public Spliterator<Url> trySplit() {
+    if (toSeg - fromSeg > 1) {
+      int mid = (fromSeg + toSeg) >>> 1;
+      LineSpliterator prefix = new LineSpliterator(segments, offsets, fromSeg, mid, pos,
+          segments[mid - 1].limit(), badLines);
+      fromSeg = mid;
+      pos = 0;
+      line = null;
+      return prefix;
+    }
+    if (fromSeg == toSeg) {
+      return null;
+    }
+
+    ByteBuffer segment = segments[fromSeg];
+    int split = pos + (end - pos) / 2;
+    while (split < end && segment.get(split) != '\n') {
+      split++;
+    }
+    split++;
+    if (split <= pos || split >= end) {
+      return null;
+    }
+    LineSpliterator prefix =
+        new LineSpliterator(segments, offsets, fromSeg, fromSeg + 1, pos, split, badLines);
+    pos = split;
+    return prefix;
+  }
+
+  @Override public long estimateSize() {
+    if (fromSeg >= toSeg) {
+      return 0;
+    }
+    long bytes = -pos;
+    for (int i = fromSeg; i < toSeg - 1; i++) {
+      bytes += segments[i].limit();
+    }
+    bytes += end;
+    return Math.max(0, bytes) / TYPICAL_LINE + 1;
+  }
+
+  @Override public int characteristics() {
+    return ORDERED | NONNULL | IMMUTABLE;
+  }
+}
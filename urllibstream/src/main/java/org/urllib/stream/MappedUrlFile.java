@@ -0,0 +1,176 @@
+package org.urllib.stream;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nonnull;
+import org.urllib.Url;
+import org.urllib.Urls;
+
+/**
+ * A newline-delimited file of UTF-8 URLs, memory-mapped so that each line is parsed in place
+ * with {@link Urls#parse(java.nio.ByteBuffer)} rather than decoded to a {@code String} first.
+ *
+ * <p>Lines that contain only whitespace are skipped, and a trailing {@code \r} is ignored. The
+ * {@link Spliterator} splits on line boundaries, so {@code urls().parallel()} divides the file
+ * between threads without reading it first.
+ *
+ * <p>A mapping can't be released explicitly; it's unmapped once this object and every stream
+ * created from it are garbage collected.
+ */
+public final class MappedUrlFile {
+
+  private final MappedByteBuffer[] segments;
+  private final long[] offsets;
+  private final long size;
+
+  private MappedUrlFile(MappedByteBuffer[] segments, long[] offsets, long size) {
+    this.segments = segments;
+    this.offsets = offsets;
+    this.size = size;
+  }
+
+  /**
+   * Maps {@code file} for reading. The file must not be truncated while it's mapped.
+   *
+   * @throws IOException if the file can't be read, or a line is longer than 2 GiB.
+   */
+  @Nonnull public static MappedUrlFile map(@Nonnull Path file) throws IOException {
+    return map(file, Integer.MAX_VALUE);
+  }
+
+  /**
+   * A single {@link MappedByteBuffer} holds at most {@code Integer.MAX_VALUE} bytes, so larger
+   * files are mapped in segments that each end just after a newline.
+   */
+  static MappedUrlFile map(Path file, int maxSegment) throws IOException {
+    List<MappedByteBuffer> segments = new ArrayList<>();
+    List<Long> offsets = new ArrayList<>();
+    long size;
+    // A mapping stays valid after its channel is closed.
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      size = channel.size();
+      long start = 0;
+      while (start < size) {
+        long window = Math.min(maxSegment, size - start);
+        MappedByteBuffer segment = channel.map(MapMode.READ_ONLY, start, window);
+        int length = (int) window;
+        if (start + window < size) {
+          length = lastNewline(segment, length) + 1;
+          if (length == 0) {
+            throw new IOException(
+                "Line at byte " + start + " of " + file + " is longer than " + maxSegment
+                    + " bytes");
+          }
+          ((Buffer) segment).limit(length);
+        }
+        segments.add(segment);
+        offsets.add(start);
+        start += length;
+      }
+    }
+
+    long[] starts = new long[offsets.size()];
+    for (int i = 0; i < starts.length; i++) {
+      starts[i] = offsets.get(i);
+    }
+    return new MappedUrlFile(segments.toArray(new MappedByteBuffer[0]), starts, size);
+  }
+
+  private static int lastNewline(MappedByteBuffer segment, int length) {
+    for (int i = length - 1; i >= 0; i--) {
+      if (segment.get(i) == '\n') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the size of the file in bytes.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Returns the URLs in the file, in order, silently skipping lines that don't parse.
+   */
+  @Nonnull public Stream<Url> urls() {
+    return urls(badLine -> { });
+  }
+
+  /**
+   * Returns the URLs in the file, in order. Each line that doesn't parse is passed to
+   * {@code badLines} instead, and the stream continues with the next line. On a parallel
+   * stream, {@code badLines} is called from several threads and in no particular order.
+   */
+  @Nonnull public Stream<Url> urls(@Nonnull Consumer<? super BadLine> badLines) {
+    return StreamSupport.stream(spliterator(badLines), false);
+  }
+
+  /**
+   * Returns a spliterator over the URLs in the file, reporting lines that don't parse to
+   * {@code badLines}.
+   */
+  @Nonnull public Spliterator<Url> spliterator(@Nonnull Consumer<? super BadLine> badLines) {
+    if (segments.length == 0) {
+      return new LineSpliterator(segments, offsets, 0, 0, 0, 0, badLines);
+    }
+    int last = segments.length - 1;
+    return new LineSpliterator(segments, offsets, 0, segments.length, 0,
+        segments[last].limit(), badLines);
+  }
+
+  /**
+   * A line that {@link Urls#parse} rejected.
+   */
+  public static final class BadLine {
+
+    private final long offset;
+    private final byte[] utf8;
+    private final IllegalArgumentException failure;
+
+    BadLine(long offset, byte[] utf8, IllegalArgumentException failure) {
+      this.offset = offset;
+      this.utf8 = utf8;
+      this.failure = failure;
+    }
+
+    /**
+     * Returns the position of the line's first byte in the file.
+     */
+    public long offset() {
+      return offset;
+    }
+
+    /**
+     * Returns the line, without its line terminator.
+     */
+    @Nonnull public String text() {
+      return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the exception that {@link Urls#parse} threw for this line.
+     */
+    @Nonnull public IllegalArgumentException failure() {
+      return failure;
+    }
+
+    @Override public String toString() {
+      return "BadLine{offset=" + offset + ", failure=" + failure.getMessage() + "}";
+    }
+  }
+}
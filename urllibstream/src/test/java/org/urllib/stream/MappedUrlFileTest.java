@@ -0,0 +1,191 @@
+package org.urllib.stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.urllib.Rejection;
+import org.urllib.Url;
+import org.urllib.Urls;
+import org.urllib.internal.InvalidUrlException;
+import org.urllib.stream.MappedUrlFile.BadLine;
+
+public class MappedUrlFileTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test public void parsesEachLine() throws IOException {
+    MappedUrlFile file = map("http://a.com/1\nhttps://b.com/2?q=3\nhttp://c.com/é#f");
+    assertEquals(
+        urls("http://a.com/1", "https://b.com/2?q=3", "http://c.com/é#f"),
+        file.urls().collect(Collectors.toList()));
+  }
+
+  @Test public void skipsBlankLinesAndCarriageReturns() throws IOException {
+    MappedUrlFile file = map("\n\r\nhttp://a.com\r\n  \t\nhttp://b.com\r\n\n");
+    assertEquals(urls("http://a.com", "http://b.com"), file.urls().collect(Collectors.toList()));
+  }
+
+  @Test public void emptyFile() throws IOException {
+    MappedUrlFile file = map("");
+    assertEquals(0, file.size());
+    assertEquals(0, file.urls().count());
+  }
+
+  @Test public void reportsBadLinesAndContinues() throws IOException {
+    String contents = "http://a.com\nftp://b.com\nhttp://c.com\nhttp://d.com:99999\n";
+    List<BadLine> badLines = new ArrayList<>();
+    List<Url> parsed = map(contents).urls(badLines::add).collect(Collectors.toList());
+
+    assertEquals(urls("http://a.com", "http://c.com"), parsed);
+    assertEquals(2, badLines.size());
+
+    BadLine scheme = badLines.get(0);
+    assertEquals(contents.indexOf("ftp"), scheme.offset());
+    assertEquals("ftp://b.com", scheme.text());
+    assertEquals(Rejection.BAD_SCHEME, reason(scheme));
+
+    BadLine port = badLines.get(1);
+    assertEquals(contents.indexOf("http://d.com"), port.offset());
+    assertEquals("http://d.com:99999", port.text());
+    assertEquals(Rejection.BAD_PORT, reason(port));
+  }
+
+  @Test public void splitsOnLineBoundaries() throws IOException {
+    List<String> lines = lines(1000);
+    MappedUrlFile file = map(String.join("\n", lines));
+
+    List<Spliterator<Url>> parts = new ArrayList<>();
+    parts.add(file.spliterator(badLine -> fail(badLine.toString())));
+    for (int round = 0; round < 6; round++) {
+      List<Spliterator<Url>> next = new ArrayList<>();
+      for (Spliterator<Url> part : parts) {
+        Spliterator<Url> prefix = part.trySplit();
+        if (prefix != null) {
+          next.add(prefix);
+        }
+        next.add(part);
+      }
+      parts = next;
+    }
+    assertEquals(64, parts.size());
+
+    List<Url> parsed = new ArrayList<>();
+    for (Spliterator<Url> part : parts) {
+      part.forEachRemaining(parsed::add);
+    }
+    assertEquals(urls(lines), parsed);
+  }
+
+  @Test public void singleLineDoesNotSplit() throws IOException {
+    Spliterator<Url> spliterator = map("http://a.com/" + repeat('a', 1000))
+        .spliterator(badLine -> fail(badLine.toString()));
+    assertNull(spliterator.trySplit());
+    assertEquals(1, countRemaining(spliterator));
+  }
+
+  @Test public void parallelMatchesSequential() throws IOException {
+    List<String> lines = lines(20000);
+    lines.set(123, "http://bad host/");
+    lines.set(17000, "mailto:someone@example.com");
+    MappedUrlFile file = map(String.join("\n", lines));
+
+    List<BadLine> badLines = Collections.synchronizedList(new ArrayList<>());
+    List<Url> parallel = file.urls(badLines::add).parallel().collect(Collectors.toList());
+    List<Url> sequential = file.urls().collect(Collectors.toList());
+
+    assertEquals(sequential, parallel);
+    assertEquals(lines.size() - 2, parallel.size());
+    assertEquals(2, badLines.size());
+  }
+
+  @Test public void mapsLargeFilesInSegments() throws IOException {
+    List<String> lines = lines(500);
+    Path path = write(String.join("\r\n", lines) + "\r\nnot a url\r\n");
+    List<BadLine> badLines = new ArrayList<>();
+
+    MappedUrlFile file = MappedUrlFile.map(path, 256);
+    List<Url> parsed = file.urls(badLines::add).collect(Collectors.toList());
+
+    assertEquals(urls(lines), parsed);
+    assertEquals(1, badLines.size());
+    assertEquals(Files.size(path) - "not a url\r\n".length(), badLines.get(0).offset());
+    assertEquals(parsed, file.urls().parallel().collect(Collectors.toList()));
+
+    Spliterator<Url> spliterator = file.spliterator(badLine -> { });
+    Spliterator<Url> prefix = spliterator.trySplit();
+    assertNotNull(prefix);
+    assertEquals(lines.size(), countRemaining(prefix) + countRemaining(spliterator));
+  }
+
+  @Test public void lineLongerThanSegment() throws IOException {
+    Path path = write("http://a.com\nhttp://b.com/" + repeat('b', 300) + "\nhttp://c.com\n");
+    try {
+      MappedUrlFile.map(path, 256);
+      fail("Expected IOException");
+    } catch (IOException expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().startsWith("Line at byte 13 "));
+    }
+  }
+
+  private MappedUrlFile map(String contents) throws IOException {
+    return MappedUrlFile.map(write(contents));
+  }
+
+  private Path write(String contents) throws IOException {
+    Path path = folder.newFile().toPath();
+    Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+    return path;
+  }
+
+  private static List<String> lines(int count) {
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      lines.add("http://host" + (i % 37) + ".com/path/" + i + "?q=" + i);
+    }
+    return lines;
+  }
+
+  private static List<Url> urls(String... urls) {
+    List<Url> parsed = new ArrayList<>();
+    for (String url : urls) {
+      parsed.add(Urls.parse(url));
+    }
+    return parsed;
+  }
+
+  private static List<Url> urls(List<String> urls) {
+    return urls(urls.toArray(new String[0]));
+  }
+
+  private static int countRemaining(Spliterator<Url> spliterator) {
+    int[] count = new int[1];
+    spliterator.forEachRemaining(url -> count[0]++);
+    return count[0];
+  }
+
+  private static Rejection reason(BadLine badLine) {
+    return ((InvalidUrlException) badLine.failure()).reason();
+  }
+
+  private static String repeat(char c, int count) {
+    char[] chars = new char[count];
+    Arrays.fill(chars, c);
+    return new String(chars);
+  }
+}